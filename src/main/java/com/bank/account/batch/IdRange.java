@@ -0,0 +1,7 @@
+package com.bank.account.batch;
+
+/**
+ * Диапазон (afterId, lastId] в порядке id. Границы null — открытый край первого и последнего диапазона.
+ */
+public record IdRange(int index, String afterId, String lastId) {
+}
@@ -0,0 +1,46 @@
+package com.bank.account.batch;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Деление упорядоченных id на диапазоны примерно равного размера для пакетных заданий.
+ */
+public final class IdRanges {
+
+    private IdRanges() {
+    }
+
+    /**
+     * Последний id каждого диапазона, кроме последнего: диапазон i — (boundaries[i-1], boundaries[i]],
+     * последний открыт сверху. ids идут по возрастанию, total — их ожидаемое число.
+     */
+    public static List<String> boundaries(Stream<String> ids, long total, int parts) {
+        long size = Math.max(1, (total + parts - 1) / Math.max(1, parts));
+
+        List<String> boundaries = new ArrayList<>();
+        long seen = 0;
+        Iterator<String> iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            String id = iterator.next();
+            if (++seen % size == 0 && seen < total) {
+                boundaries.add(id);
+            }
+        }
+        return boundaries;
+    }
+
+    /** Диапазоны по границам из {@link #boundaries}: всегда на один больше, чем границ. */
+    public static List<IdRange> of(List<String> boundaries) {
+        List<IdRange> ranges = new ArrayList<>(boundaries.size() + 1);
+        String after = null;
+        for (String boundary : boundaries) {
+            ranges.add(new IdRange(ranges.size(), after, boundary));
+            after = boundary;
+        }
+        ranges.add(new IdRange(ranges.size(), after, null));
+        return ranges;
+    }
+}
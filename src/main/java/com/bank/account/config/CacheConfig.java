@@ -0,0 +1,27 @@
+package com.bank.account.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Инвалидация откладывается до коммита, иначе параллельное чтение успеет закэшировать старый баланс
+    @Bean
+    public static BeanPostProcessor transactionAwareCaches() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof CacheManager cacheManager) || bean instanceof TransactionAwareCacheManagerProxy) {
+                    return bean;
+                }
+                return new TransactionAwareCacheManagerProxy(cacheManager);
+            }
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.bank.account.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.jdbc.connection-limit")
+public record ConnectionLimitProperties(
+        // 0 — по размеру пула Hikari
+        @DefaultValue("0") int permits,
+        @DefaultValue("5s") Duration acquireTimeout
+) {}
@@ -0,0 +1,47 @@
+package com.bank.account.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * Стили и скрипты отдаются по адресам с хэшем содержимого (style-3f2a….css) и кэшируются браузером
+ * навсегда: новая версия файла — новый адрес. Сжатые копии .br/.gz готовит сборка (maven-antrun-plugin),
+ * здесь выбирается подходящая по Accept-Encoding.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic()
+            .immutable();
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        register(registry, "/css/**", "classpath:/static/css/");
+        register(registry, "/js/**", "classpath:/static/js/");
+    }
+
+    // Переписывает @{/css/...} в шаблонах Thymeleaf на адрес с хэшем
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+
+    private void register(ResourceHandlerRegistry registry, String pattern, String location) {
+        // Хэш и найденный вариант кодирования кэшируются цепочкой: файл читается один раз
+        registry.addResourceHandler(pattern)
+                .addResourceLocations(location)
+                .setCacheControl(IMMUTABLE)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+}
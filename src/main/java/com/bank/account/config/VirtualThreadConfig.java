@@ -0,0 +1,46 @@
+package com.bank.account.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Режим виртуальных потоков (spring.threads.virtual.enabled=true): Tomcat, @Async и планировщик
+ * переключает сам Spring Boot, здесь ограничивается доступ этих потоков к пулу соединений.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            ObjectProvider<ConnectionLimitProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+
+                ConnectionLimitProperties limits = properties.getObject();
+                int permits = limits.permits();
+                if (permits <= 0 && dataSource instanceof HikariDataSource hikari) {
+                    permits = hikari.getMaximumPoolSize();
+                }
+                if (permits <= 0) {
+                    return bean;
+                }
+
+                log.info("Доступ к пулу соединений '{}' ограничен {} потоками", beanName, permits);
+                return new ConnectionLimitingDataSource(dataSource, permits, limits.acquireTimeout());
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package com.bank.account.controller;
+
+import com.bank.account.dto.AccountResponse;
+import com.bank.account.dto.BalancePeriodSummary;
+import com.bank.account.dto.HistoricalBalanceResponse;
+import com.bank.account.dto.TransactionFilter;
+import com.bank.account.dto.TransactionItemPage;
+import com.bank.account.dto.TransactionRequest;
+import com.bank.account.dto.TransactionResponse;
+import com.bank.account.security.SecurityUtils;
+import com.bank.account.service.AccountService;
+import com.bank.account.service.BalanceHistoryService;
+import com.bank.account.service.ResourceVersionService;
+import com.bank.account.service.TransactionService;
+import com.bank.account.service.idempotency.IdempotentPostingService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * JSON API счетов. GET отвечают с ETag: при совпадении If-None-Match возвращается 304
+ * до загрузки счета и проводок.
+ */
+@RestController
+@RequestMapping("/api/v1/accounts")
+@RequiredArgsConstructor
+public class AccountApiController {
+
+    // Клиент кэширует ответ, но перед использованием переспрашивает сервер
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final BalanceHistoryService balanceHistoryService;
+    private final IdempotentPostingService idempotentPostingService;
+    private final ResourceVersionService resourceVersionService;
+    private final JsonStreams jsonStreams;
+    private final SecurityUtils secUtils;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> accounts(WebRequest request) {
+        String userId = secUtils.getCurrentUserId();
+
+        String etag = resourceVersionService.userTag(userId);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(REVALIDATE)
+                .body(jsonStreams.array(accountService.getAllAccounts(userId)));
+    }
+
+    @GetMapping("/{accountNumber}")
+    public ResponseEntity<AccountResponse> account(@PathVariable("accountNumber") String accountNumber,
+                                                   WebRequest request) {
+        String etag = resourceVersionService.accountTag(accountNumber);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .body(accountService.getAccount(accountNumber));
+    }
+
+    @GetMapping("/{accountNumber}/transactions")
+    public ResponseEntity<StreamingResponseBody> transactions(@PathVariable("accountNumber") String accountNumber,
+                                                              @ModelAttribute TransactionFilter filter,
+                                                              WebRequest request) {
+        String etag = resourceVersionService.accountTag(accountNumber);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+
+        TransactionItemPage page = transactionService.getAccountTransactionItems(accountNumber, filter);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(REVALIDATE)
+                .body(jsonStreams.page("transactions", page.transactions(), page.nextCursor()));
+    }
+
+    @PostMapping("/{accountNumber}/deposits")
+    public TransactionResponse deposit(@PathVariable("accountNumber") String accountNumber,
+                                       @Valid @RequestBody TransactionRequest request,
+                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotentPostingService.deposit(accountNumber, request, idempotencyKey);
+    }
+
+    @PostMapping("/{accountNumber}/withdrawals")
+    public TransactionResponse withdraw(@PathVariable("accountNumber") String accountNumber,
+                                        @Valid @RequestBody TransactionRequest request) {
+        return accountService.withdraw(accountNumber, request);
+    }
+
+    @GetMapping("/{accountNumber}/balance")
+    public HistoricalBalanceResponse balanceOn(
+            @PathVariable("accountNumber") String accountNumber,
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return new HistoricalBalanceResponse(accountNumber, date, balanceHistoryService.balanceOn(accountNumber, date));
+    }
+
+    @GetMapping("/{accountNumber}/summary")
+    public BalancePeriodSummary summary(
+            @PathVariable("accountNumber") String accountNumber,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return balanceHistoryService.summary(accountNumber, from, to);
+    }
+}
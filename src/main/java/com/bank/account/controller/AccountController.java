@@ -4,37 +4,57 @@ import com.bank.account.dto.*;
 import com.bank.account.model.AccountType;
 import com.bank.account.security.SecurityUtils;
 import com.bank.account.service.AccountService;
+import com.bank.account.service.ResourceVersionService;
+import com.bank.account.service.StatementExportService;
 import com.bank.account.service.TransactionService;
+import com.bank.account.service.idempotency.IdempotentPostingService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.ui.ModelMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.UUID;
 
 @Controller
 @RequestMapping("/account")
 @RequiredArgsConstructor
 public class AccountController {
 
+    // Страница может лежать в кэше браузера, но показывается только после проверки ETag
+    private static final String REVALIDATE = CacheControl.noCache().cachePrivate().getHeaderValue();
+
     private final AccountService accountService;
     private final TransactionService transactionService;
+    private final StatementExportService statementExportService;
+    private final IdempotentPostingService idempotentPostingService;
+    private final ResourceVersionService resourceVersionService;
     private final SecurityUtils secUtils;
 
     @GetMapping
-    public String getAccounts(Authentication auth, Model model) {
+    public String getAccounts(Authentication auth, Model model,
+                              WebRequest request, HttpServletResponse response) {
         String userId = secUtils.getCurrentUserId();
 
+        if (notModified(resourceVersionService.userTag(userId), request, response)) {
+            return null;
+        }
+
         List<AccountResponse> accounts = accountService.getAllAccounts(userId);
         List<TransactionResponse> top10Transactions = transactionService.getLastTransaction(userId);
 
-        BigDecimal amount = accounts.stream()
-                .map(AccountResponse::balance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal amount = totalBalance(accounts);
 
         model.addAttribute("accounts", accounts);
         model.addAttribute("transactions", top10Transactions);
@@ -75,20 +95,28 @@ public class AccountController {
         model.addAttribute("username", auth.getName());
         model.addAttribute("accountNumber", accountNumber);
         model.addAttribute("request", new TransactionRequest());
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
         return "deposit";
     }
 
     @PostMapping("/{accountNumber}/deposit")
     public String deposit(@PathVariable("accountNumber") String accountNumber,
-                          @Valid @ModelAttribute("request") TransactionRequest request) {
-        accountService.deposit(accountNumber, request);
+                          @Valid @ModelAttribute("request") TransactionRequest request,
+                          @RequestParam(value = "idempotencyKey", required = false) String idempotencyKey) {
+        idempotentPostingService.deposit(accountNumber, request, idempotencyKey);
         return "redirect:/account";
     }
 
     @GetMapping("/{accountNumber}/transfer")
-    public String transferForm(Authentication auth, Model model) {
+    public String transferForm(@PathVariable("accountNumber") String accountNumber,
+                               Authentication auth, Model model) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountNumber(accountNumber);
+
         model.addAttribute("username", auth.getName());
-        model.addAttribute("request", new TransferRequest());
+        model.addAttribute("accountNumber", accountNumber);
+        model.addAttribute("request", request);
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
 
         return "transfer";
     }
@@ -96,23 +124,66 @@ public class AccountController {
     @PostMapping("/{accountNumber}/transfer")
     public String transfer(@PathVariable("accountNumber") String accountNumber,
                            @Valid @ModelAttribute("request") TransferRequest request,
+                           @RequestParam(value = "idempotencyKey", required = false) String idempotencyKey,
                            Authentication auth, Model model) {
         request.setFromAccountNumber(accountNumber);
 
-        accountService.transfer(request);
+        idempotentPostingService.transfer(request, idempotencyKey);
 
         return "redirect:/account";
     }
 
     @GetMapping("/{accountNumber}/transaction")
     public String getAccountTransactions(@PathVariable("accountNumber") String accountNumber,
-                                         Authentication auth, Model model) {
+                                         @ModelAttribute("filter") TransactionFilter filter,
+                                         Authentication auth, Model model,
+                                         WebRequest request, HttpServletResponse response) {
+        if (notModified(resourceVersionService.accountTag(accountNumber), request, response)) {
+            return null;
+        }
+
         model.addAttribute("username", auth.getName());
 
-        List<TransactionResponse> transactions = transactionService.getAccountTransaction(accountNumber);
+        TransactionPage page = transactionService.getAccountTransactions(accountNumber, filter);
 
-        model.addAttribute("transactions", transactions);
+        model.addAttribute("accountNumber", accountNumber);
+        model.addAttribute("transactions", page.transactions());
+        model.addAttribute("nextCursor", page.nextCursor());
 
         return "transaction";
     }
+
+    @GetMapping("/{accountNumber}/statement")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @PathVariable("accountNumber") String accountNumber,
+            @RequestParam(value = "format", defaultValue = "CSV") StatementFormat format) {
+        // Проверяем счет до начала потока, пока ещё можно вернуть ошибку вместо 200
+        accountService.getAccount(accountNumber);
+
+        StreamingResponseBody body = out -> statementExportService.export(accountNumber, format, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"statement-" + accountNumber + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Условный GET до запросов к сервисам и рендеринга шаблона. Cache-Control ставится явно:
+     * иначе Spring Security допишет no-store и браузер не пришлет If-None-Match.
+     */
+    private boolean notModified(String etag, WebRequest request, HttpServletResponse response) {
+        if (etag == null) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+        return request.checkNotModified(etag);
+    }
+
+    static BigDecimal totalBalance(List<AccountResponse> accounts) {
+        return accounts.stream()
+                .map(AccountResponse::balance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
 }
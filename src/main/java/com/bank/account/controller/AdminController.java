@@ -0,0 +1,84 @@
+package com.bank.account.controller;
+
+import com.bank.account.dto.CacheStatsResponse;
+import com.bank.account.dto.HashingStatsResponse;
+import com.bank.account.dto.InterestAccrualResult;
+import com.bank.account.dto.StatementJobStatus;
+import com.bank.account.interest.InterestAccrualJob;
+import com.bank.account.security.BoundedPasswordEncoder;
+import com.bank.account.service.slots.SplitBalanceService;
+import com.bank.account.statement.MonthlyStatementJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final CacheManager cacheManager;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final MonthlyStatementJob statementJob;
+    private final InterestAccrualJob interestAccrualJob;
+    private final SplitBalanceService splitBalanceService;
+
+    @GetMapping("/caches")
+    public Map<String, CacheStatsResponse> cacheStats() {
+        Map<String, CacheStatsResponse> stats = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            stats.put(name, CacheStatsResponse.of(cacheManager.getCache(name)));
+        }
+        return stats;
+    }
+
+    @GetMapping("/password-hashing")
+    public HashingStatsResponse hashingStats() {
+        return new HashingStatsResponse(
+                passwordEncoder.queueDepth(),
+                passwordEncoder.activeCount(),
+                passwordEncoder.completedCount(),
+                passwordEncoder.rejectedCount()
+        );
+    }
+
+    @PostMapping("/statements")
+    public ResponseEntity<StatementJobStatus> startStatements(@RequestParam YearMonth period) {
+        return ResponseEntity.accepted().body(statementJob.start(period));
+    }
+
+    @GetMapping("/statements")
+    public ResponseEntity<StatementJobStatus> statementStatus() {
+        StatementJobStatus status = statementJob.status();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.noContent().build();
+    }
+
+    // Повтор за уже обработанную дату безопасен: начисляются только счета, пропущенные прошлым прогоном
+    @PostMapping("/interest")
+    public InterestAccrualResult accrueInterest(
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return interestAccrualJob.accrue(date);
+    }
+
+    @PutMapping("/accounts/{accountNumber}/balance-slots")
+    public ResponseEntity<Void> resizeBalanceSlots(@PathVariable("accountNumber") String accountNumber,
+                                                   @RequestParam("count") int count) {
+        splitBalanceService.resize(accountNumber, count);
+        // Этот экземпляр переключается сразу после коммита, остальные — по bank.balance-slots.refresh-interval
+        splitBalanceService.refresh();
+        return ResponseEntity.noContent().build();
+    }
+}
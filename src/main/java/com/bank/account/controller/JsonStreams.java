@@ -0,0 +1,57 @@
+package com.bank.account.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.util.List;
+
+/**
+ * Списки JSON API пишутся элемент за элементом прямо в ответ: без промежуточной строки
+ * и без дерева всего документа в памяти.
+ */
+@Component
+@RequiredArgsConstructor
+class JsonStreams {
+
+    private final ObjectMapper objectMapper;
+
+    StreamingResponseBody array(List<?> items) {
+        return out -> {
+            try (JsonGenerator generator = writer().createGenerator(out)) {
+                writeArray(generator, items);
+            }
+        };
+    }
+
+    // {"<field>": [...], "nextCursor": ...} — страница с курсором продолжения
+    StreamingResponseBody page(String field, List<?> items, String nextCursor) {
+        return out -> {
+            try (JsonGenerator generator = writer().createGenerator(out)) {
+                generator.writeStartObject();
+                generator.writeName(field);
+                writeArray(generator, items);
+                generator.writeName("nextCursor");
+                generator.writeString(nextCursor);
+                generator.writeEndObject();
+            }
+        };
+    }
+
+    private void writeArray(JsonGenerator generator, List<?> items) {
+        generator.writeStartArray();
+        for (Object item : items) {
+            objectMapper.writeValue(generator, item);
+        }
+        generator.writeEndArray();
+    }
+
+    // Поток ответа закрывает контейнер, генератор его только сбрасывает
+    private ObjectWriter writer() {
+        return objectMapper.writer().without(StreamWriteFeature.AUTO_CLOSE_TARGET);
+    }
+}
@@ -0,0 +1,35 @@
+package com.bank.account.controller;
+
+import com.bank.account.dto.BatchTransferRequest;
+import com.bank.account.dto.BatchTransferResponse;
+import com.bank.account.dto.TransferRequest;
+import com.bank.account.dto.TransferResponse;
+import com.bank.account.service.AccountService;
+import com.bank.account.service.idempotency.IdempotentPostingService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/transfers")
+@RequiredArgsConstructor
+public class TransferApiController {
+
+    private final AccountService accountService;
+    private final IdempotentPostingService idempotentPostingService;
+
+    @PostMapping
+    public TransferResponse transfer(@Valid @RequestBody TransferRequest request,
+                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotentPostingService.transfer(request, idempotencyKey);
+    }
+
+    @PostMapping("/batch")
+    public BatchTransferResponse batchTransfer(@Valid @RequestBody BatchTransferRequest request) {
+        return accountService.batchTransfer(request.getLegs());
+    }
+}
@@ -0,0 +1,15 @@
+package com.bank.account.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record BalancePeriodSummary(
+        String accountNumber,
+        LocalDate from,
+        LocalDate to,
+        BigDecimal openingBalance,
+        BigDecimal credits,
+        BigDecimal debits,
+        BigDecimal closingBalance,
+        long transactionCount
+) {}
@@ -0,0 +1,18 @@
+package com.bank.account.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BatchTransferRequest {
+
+    @NotEmpty(message = "Пачка должна содержать хотя бы один перевод")
+    @Size(max = 10000, message = "Пачка не может содержать больше 10000 переводов")
+    private List<@Valid TransferRequest> legs;
+}
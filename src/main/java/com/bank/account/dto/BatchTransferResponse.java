@@ -0,0 +1,16 @@
+package com.bank.account.dto;
+
+import java.util.List;
+
+public record BatchTransferResponse(
+        int completed,
+        int rejected,
+        List<TransferLegResult> legs
+) {
+    public static BatchTransferResponse of(List<TransferLegResult> legs) {
+        int completed = (int) legs.stream()
+                .filter(leg -> leg.status() == TransferLegStatus.COMPLETED)
+                .count();
+        return new BatchTransferResponse(completed, legs.size() - completed, legs);
+    }
+}
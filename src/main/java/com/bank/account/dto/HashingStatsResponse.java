@@ -0,0 +1,8 @@
+package com.bank.account.dto;
+
+public record HashingStatsResponse(
+        int queueDepth,
+        int activeCount,
+        long completedCount,
+        long rejectedCount
+) {}
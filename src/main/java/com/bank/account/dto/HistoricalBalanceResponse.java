@@ -0,0 +1,10 @@
+package com.bank.account.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record HistoricalBalanceResponse(
+        String accountNumber,
+        LocalDate date,
+        BigDecimal balance
+) {}
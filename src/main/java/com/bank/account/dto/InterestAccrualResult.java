@@ -0,0 +1,18 @@
+package com.bank.account.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record InterestAccrualResult(
+        LocalDate date,
+        long accounts,
+        long credited,
+        BigDecimal paid,
+        int failedRanges,
+        double elapsedSeconds
+) {
+
+    public static InterestAccrualResult skipped(LocalDate date) {
+        return new InterestAccrualResult(date, 0, 0, BigDecimal.ZERO, 0, 0);
+    }
+}
@@ -0,0 +1,16 @@
+package com.bank.account.dto;
+
+import java.util.List;
+
+public record StatementJobStatus(
+        String period,
+        String state,
+        int partitions,
+        int completedPartitions,
+        List<Integer> failedPartitions,
+        long accounts,
+        long transactions,
+        double elapsedSeconds,
+        double accountsPerSecond,
+        double transactionsPerSecond
+) {}
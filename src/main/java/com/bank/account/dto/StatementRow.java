@@ -0,0 +1,15 @@
+package com.bank.account.dto;
+
+import com.bank.account.model.TransactionType;
+
+import java.math.BigDecimal;
+
+public record StatementRow(
+        String id,
+        String accountNumber,
+        String timestamp,
+        TransactionType type,
+        BigDecimal amount,
+        BigDecimal balanceAfter,
+        String description
+) {}
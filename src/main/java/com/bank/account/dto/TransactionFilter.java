@@ -0,0 +1,30 @@
+package com.bank.account.dto;
+
+import com.bank.account.model.TransactionType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+public class TransactionFilter {
+
+    private TransactionType type;
+
+    private BigDecimal minAmount;
+
+    private BigDecimal maxAmount;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    private String cursor;
+
+    private Integer size;
+}
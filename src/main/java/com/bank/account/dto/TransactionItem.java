@@ -0,0 +1,19 @@
+package com.bank.account.dto;
+
+import com.bank.account.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Проводка в JSON API: без номера счета (он в URL) и с временем в ISO-8601.
+ */
+public record TransactionItem(
+        UUID id,
+        TransactionType type,
+        BigDecimal amount,
+        BigDecimal balanceAfter,
+        LocalDateTime timestamp,
+        String description
+) {}
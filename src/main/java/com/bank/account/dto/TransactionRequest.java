@@ -1,5 +1,7 @@
 package com.bank.account.dto;
 
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -8,5 +10,8 @@ import java.math.BigDecimal;
 @Data
 @NoArgsConstructor
 public class TransactionRequest {
+
+    @NotNull(message = "Сумма должна быть указана")
+    @Positive(message = "Сумма должна быть больше нуля")
     private BigDecimal amount;
 }
@@ -0,0 +1,26 @@
+package com.bank.account.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TransferLegResult(
+        int index,
+        String fromAccountNumber,
+        String toAccountNumber,
+        BigDecimal amount,
+        TransferLegStatus status,
+        String errorCode,
+        BigDecimal fromBalanceAfter
+) {
+    public static TransferLegResult completed(int index, TransferRequest leg, BigDecimal fromBalanceAfter) {
+        return new TransferLegResult(index, leg.getFromAccountNumber(), leg.getToAccountNumber(),
+                leg.getAmount(), TransferLegStatus.COMPLETED, null, fromBalanceAfter);
+    }
+
+    public static TransferLegResult rejected(int index, TransferRequest leg, String errorCode) {
+        return new TransferLegResult(index, leg.getFromAccountNumber(), leg.getToAccountNumber(),
+                leg.getAmount(), TransferLegStatus.REJECTED, errorCode, null);
+    }
+}
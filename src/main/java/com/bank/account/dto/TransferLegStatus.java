@@ -0,0 +1,5 @@
+package com.bank.account.dto;
+
+public enum TransferLegStatus {
+    COMPLETED, REJECTED
+}
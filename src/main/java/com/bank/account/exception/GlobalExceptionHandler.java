@@ -3,17 +3,24 @@ package com.bank.account.exception;
 import com.bank.account.dto.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
-@RestControllerAdvice
+// Только для JSON API: HTML-контроллеры показывают ошибки на своих страницах
+@RestControllerAdvice(annotations = RestController.class)
 public class GlobalExceptionHandler {
 
+    @ExceptionHandler(BaseException.class)
     public ResponseEntity<ErrorResponse> handleBaseException(
             BaseException ex,
             HttpServletRequest request) {
@@ -36,8 +43,31 @@ public class GlobalExceptionHandler {
                 .path(request.getRequestURI())
                 .errorCode(ex.getErrorCode())
                 .details(!details.isEmpty() ? details : null)
+                .validationErrors(ex instanceof ValidationException validation ? validation.getErrors() : null)
                 .build();
 
         return new ResponseEntity<>(errorResponse, ex.getHttpStatus());
     }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidBody(
+            MethodArgumentNotValidException ex,
+            HttpServletRequest request) {
+
+        List<String> errors = ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .toList();
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("VALIDATION_ERROR")
+                .message("Некорректный запрос")
+                .path(request.getRequestURI())
+                .errorCode("VALIDATION_ERROR")
+                .validationErrors(errors)
+                .build();
+
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
 }
@@ -0,0 +1,11 @@
+package com.bank.account.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class IdempotencyKeyReusedException extends BaseException {
+
+    public IdempotencyKeyReusedException(String key) {
+        super("IDEMPOTENCY_KEY_REUSED", HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency key " + key + " was already used for a different request");
+    }
+}
@@ -0,0 +1,10 @@
+package com.bank.account.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class LedgerUnavailableException extends BaseException {
+
+    public LedgerUnavailableException(String message) {
+        super("LEDGER_UNAVAILABLE", HttpStatus.SERVICE_UNAVAILABLE, message);
+    }
+}
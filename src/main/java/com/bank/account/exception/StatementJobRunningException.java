@@ -0,0 +1,11 @@
+package com.bank.account.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class StatementJobRunningException extends BaseException {
+
+    public StatementJobRunningException(String period) {
+        super("STATEMENT_JOB_RUNNING", HttpStatus.CONFLICT,
+                "Statement job for " + period + " is already running");
+    }
+}
@@ -0,0 +1,267 @@
+package com.bank.account.interest;
+
+import com.bank.account.batch.IdRange;
+import com.bank.account.batch.IdRanges;
+import com.bank.account.dto.InterestAccrualResult;
+import com.bank.account.exception.ValidationException;
+import com.bank.account.ledger.LedgerProperties;
+import com.bank.account.model.AccountType;
+import com.bank.account.model.Transaction;
+import com.bank.account.model.TransactionType;
+import com.bank.account.outbox.OutboxWriter;
+import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.InterestAccrualRepository;
+import com.bank.account.repository.InterestAccrualRepository.InterestUpdate;
+import com.bank.account.repository.SavingsBalance;
+import com.bank.account.repository.TransactionRepository;
+import com.bank.account.service.AccountCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Ночное начисление процентов по сберегательным счетам. Счета делятся на диапазоны id, диапазоны
+ * обрабатывают parallelism виртуальных потоков; каждая порция — одна транзакция: блокировка строк,
+ * пакетный UPDATE балансов, пакетная вставка проводок DEPOSIT и событий outbox.
+ * Дата начисления записывается в сам счет, поэтому повторный прогон за ту же дату ничего не удваивает,
+ * а прерванный — продолжает с необработанных счетов.
+ */
+@Slf4j
+@Component
+public class InterestAccrualJob {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final AccountRepository accountRepository;
+    private final InterestAccrualRepository accrualRepository;
+    private final TransactionRepository transactionRepository;
+    private final OutboxWriter outboxWriter;
+    private final AccountCache accountCache;
+    private final InterestCalculator calculator;
+    private final InterestProperties properties;
+    private final LedgerProperties ledgerProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter accountsCredited;
+    private final Counter interestPaid;
+
+    public InterestAccrualJob(AccountRepository accountRepository,
+                              InterestAccrualRepository accrualRepository,
+                              TransactionRepository transactionRepository,
+                              OutboxWriter outboxWriter,
+                              AccountCache accountCache,
+                              InterestCalculator calculator,
+                              InterestProperties properties,
+                              LedgerProperties ledgerProperties,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.accrualRepository = accrualRepository;
+        this.transactionRepository = transactionRepository;
+        this.outboxWriter = outboxWriter;
+        this.accountCache = accountCache;
+        this.calculator = calculator;
+        this.properties = properties;
+        this.ledgerProperties = ledgerProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.accountsCredited = Counter.builder("bank.interest.credited")
+                .description("Счета, которым выплачены проценты")
+                .register(meterRegistry);
+        this.interestPaid = Counter.builder("bank.interest.paid")
+                .description("Сумма выплаченных процентов")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${bank.interest.cron:0 30 0 * * *}")
+    public void accrueYesterday() {
+        if (properties.enabled()) {
+            accrue(LocalDate.now().minusDays(1));
+        }
+    }
+
+    /**
+     * Начисление за день date. Счет, пропустивший предыдущие прогоны, получает проценты за все дни
+     * после своей последней даты начисления по текущему балансу.
+     */
+    public InterestAccrualResult accrue(LocalDate date) {
+        if (!date.isBefore(LocalDate.now())) {
+            throw new ValidationException("Проценты начисляются только за завершенный день", List.of("date"));
+        }
+        // Балансы леджера живут в памяти: UPDATE мимо него разошелся бы с LedgerEngine
+        if (ledgerProperties.enabled()) {
+            log.warn("Начисление процентов за {} пропущено: включен леджер (bank.ledger.enabled)", date);
+            return InterestAccrualResult.skipped(date);
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Начисление процентов за {} пропущено: предыдущий прогон еще идет", date);
+            return InterestAccrualResult.skipped(date);
+        }
+
+        try {
+            return run(date);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private InterestAccrualResult run(LocalDate date) {
+        long startedAt = System.nanoTime();
+        List<IdRange> ranges = IdRanges.of(readOnlyTransaction.execute(status -> {
+            long total = accountRepository.countByType(AccountType.SAVINGS);
+            try (Stream<String> ids = accountRepository.streamIdsByType(AccountType.SAVINGS)) {
+                return IdRanges.boundaries(ids, total, properties.partitions());
+            }
+        }));
+
+        Progress progress = new Progress();
+        Queue<IdRange> queue = new ConcurrentLinkedQueue<>(ranges);
+        int workers = Math.max(1, Math.min(properties.parallelism(), ranges.size()));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+            for (int i = 0; i < workers; i++) {
+                futures[i] = CompletableFuture.runAsync(() -> drain(date, queue, progress), executor);
+            }
+            CompletableFuture.allOf(futures).join();
+        }
+
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        InterestAccrualResult result = new InterestAccrualResult(
+                date,
+                progress.accounts.get(),
+                progress.credited.get(),
+                progress.paid.get(),
+                progress.failedRanges.get(),
+                seconds
+        );
+
+        if (result.failedRanges() == 0) {
+            log.info("Проценты за {} начислены: {} счетов, выплаты по {}, сумма {} за {} с ({} счетов/с)",
+                    date, result.accounts(), result.credited(), result.paid(),
+                    String.format("%.1f", seconds), String.format("%.0f", seconds > 0 ? result.accounts() / seconds : 0));
+        } else {
+            log.error("Проценты за {} начислены не полностью: {} диапазонов с ошибками. "
+                    + "Повторный прогон за ту же дату обработает только оставшиеся счета", date, result.failedRanges());
+        }
+        return result;
+    }
+
+    private void drain(LocalDate date, Queue<IdRange> queue, Progress progress) {
+        IdRange range;
+        while ((range = queue.poll()) != null) {
+            try {
+                accrueRange(date, range, progress);
+            } catch (RuntimeException e) {
+                // Обработанные порции уже зафиксированы, остаток диапазона подхватит повторный прогон
+                progress.failedRanges.incrementAndGet();
+                log.error("Диапазон {} начисления процентов за {} завершился ошибкой", range.index(), date, e);
+            }
+        }
+    }
+
+    private void accrueRange(LocalDate date, IdRange range, Progress progress) {
+        String after = range.afterId();
+        Chunk chunk;
+        do {
+            String chunkAfter = after;
+            chunk = transactionTemplate.execute(status -> accrueChunk(date, range, chunkAfter));
+
+            // Кэши сбрасываются после коммита, иначе параллельное чтение вернуло бы в них старый баланс
+            for (SavingsBalance account : chunk.credited()) {
+                accountCache.evict(account.accountNumber(), account.userId());
+            }
+            progress.record(chunk);
+            accountsCredited.increment(chunk.credited().size());
+            interestPaid.increment(chunk.paid().doubleValue());
+            after = chunk.lastAccountId();
+        } while (chunk.accounts() == properties.chunkSize());
+    }
+
+    private Chunk accrueChunk(LocalDate date, IdRange range, String after) {
+        List<SavingsBalance> accounts = accrualRepository.lockChunk(after, range.lastId(), date, properties.chunkSize());
+        if (accounts.isEmpty()) {
+            return Chunk.EMPTY;
+        }
+
+        String description = "Проценты за " + DATE_FORMAT.format(date);
+        List<InterestUpdate> updates = new ArrayList<>(accounts.size());
+        List<SavingsBalance> credited = new ArrayList<>();
+        List<Transaction> postings = new ArrayList<>();
+        BigDecimal paid = BigDecimal.ZERO;
+
+        for (SavingsBalance account : accounts) {
+            long days = account.interestAccruedThrough() != null
+                    ? ChronoUnit.DAYS.between(account.interestAccruedThrough(), date)
+                    : 1;
+            InterestCalculator.Accrual accrual = calculator.accrue(account.balance(), account.interestCarry(), days);
+            BigDecimal balance = account.balance().add(accrual.payout());
+
+            // Дата и остаток копеек пишутся и при нулевой выплате: счет отмечен как обработанный
+            updates.add(new InterestUpdate(account.id(), balance, accrual.carry()));
+
+            if (accrual.payout().signum() > 0) {
+                postings.add(Transaction.builder()
+                        .account(accountRepository.getReferenceById(account.id()))
+                        .amount(accrual.payout())
+                        .type(TransactionType.DEPOSIT)
+                        .description(description)
+                        .balanceAfter(balance)
+                        .build());
+                credited.add(account);
+                paid = paid.add(accrual.payout());
+            }
+        }
+
+        accrualRepository.applyAll(updates, date);
+        // Вставки проводок и событий группирует Hibernate (hibernate.jdbc.batch_size)
+        transactionRepository.saveAll(postings);
+        for (int i = 0; i < postings.size(); i++) {
+            outboxWriter.append(postings.get(i), credited.get(i).accountNumber());
+        }
+
+        return new Chunk(accounts.getLast().id(), accounts.size(), credited, paid);
+    }
+
+    private record Chunk(String lastAccountId, int accounts, List<SavingsBalance> credited, BigDecimal paid) {
+        static final Chunk EMPTY = new Chunk(null, 0, List.of(), BigDecimal.ZERO);
+    }
+
+    private static final class Progress {
+        private final AtomicLong accounts = new AtomicLong();
+        private final AtomicLong credited = new AtomicLong();
+        private final AtomicReference<BigDecimal> paid = new AtomicReference<>(BigDecimal.ZERO);
+        private final AtomicInteger failedRanges = new AtomicInteger();
+
+        void record(Chunk chunk) {
+            accounts.addAndGet(chunk.accounts());
+            credited.addAndGet(chunk.credited().size());
+            paid.accumulateAndGet(chunk.paid(), BigDecimal::add);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.bank.account.interest;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Начисление за день по ставке ACT/basis. Выплачиваются целые копейки с округлением вниз,
+ * остаток копит interest_carry: за год сумма выплат расходится с точным начислением меньше чем на копейку.
+ */
+@Component
+public class InterestCalculator {
+
+    static final int MONEY_SCALE = 2;
+    static final int CARRY_SCALE = 10;
+
+    private final BigDecimal dailyRateDivisor;
+    private final BigDecimal annualRate;
+
+    public InterestCalculator(InterestProperties properties) {
+        this.annualRate = properties.annualRate();
+        this.dailyRateDivisor = BigDecimal.valueOf(properties.dayCountBasis());
+    }
+
+    public Accrual accrue(BigDecimal balance, BigDecimal carry, long days) {
+        BigDecimal pending = carry != null ? carry : BigDecimal.ZERO;
+
+        // На нулевой и отрицательный остаток проценты не начисляются, накопленный остаток сохраняется
+        if (balance.signum() > 0 && days > 0) {
+            pending = pending.add(balance
+                    .multiply(annualRate)
+                    .multiply(BigDecimal.valueOf(days))
+                    .divide(dailyRateDivisor, CARRY_SCALE, RoundingMode.HALF_EVEN));
+        }
+
+        BigDecimal payout = pending.setScale(MONEY_SCALE, RoundingMode.DOWN);
+        return new Accrual(payout, pending.subtract(payout).setScale(CARRY_SCALE, RoundingMode.UNNECESSARY));
+    }
+
+    public record Accrual(BigDecimal payout, BigDecimal carry) {
+    }
+}
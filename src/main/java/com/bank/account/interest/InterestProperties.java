@@ -0,0 +1,19 @@
+package com.bank.account.interest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.math.BigDecimal;
+
+@ConfigurationProperties(prefix = "bank.interest")
+public record InterestProperties(
+        @DefaultValue("true") boolean enabled,
+        // Годовая ставка долей: 0.04 — 4% годовых
+        @DefaultValue("0.04") BigDecimal annualRate,
+        // ACT/365 Fixed: день — 1/365 годовой ставки и в високосный год
+        @DefaultValue("365") int dayCountBasis,
+        @DefaultValue("16") int partitions,
+        // Потоков и одновременно занятых соединений
+        @DefaultValue("4") int parallelism,
+        @DefaultValue("1000") int chunkSize
+) {}
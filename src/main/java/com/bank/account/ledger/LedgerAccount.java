@@ -0,0 +1,27 @@
+package com.bank.account.ledger;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Состояние счета в памяти леджера. Баланс меняется только под блокировкой полосы,
+ * к которой относится номер счета.
+ */
+@Getter
+class LedgerAccount {
+
+    private final String id;
+    private final String accountNumber;
+    private volatile BigDecimal balance;
+
+    LedgerAccount(String id, String accountNumber, BigDecimal balance) {
+        this.id = id;
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+    }
+
+    void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
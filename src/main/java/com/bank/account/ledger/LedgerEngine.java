@@ -0,0 +1,198 @@
+package com.bank.account.ledger;
+
+import com.bank.account.exception.AccountNotFoundException;
+import com.bank.account.exception.InsufficientFundsException;
+import com.bank.account.model.Account;
+import com.bank.account.model.TransactionType;
+import com.bank.account.repository.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Леджер с балансами в памяти. Проводки по одному счету сериализуются блокировкой полосы,
+ * результат сразу возвращается клиенту, а запись в accounts/transactions выполняет {@link LedgerWriter}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.ledger", name = "enabled", havingValue = "true")
+public class LedgerEngine {
+
+    private final AccountRepository accountRepository;
+    private final LedgerWriter ledgerWriter;
+    private final ReentrantLock[] stripes;
+    private final ConcurrentMap<String, LedgerAccount> accounts = new ConcurrentHashMap<>();
+
+    public LedgerEngine(AccountRepository accountRepository,
+                        LedgerWriter ledgerWriter,
+                        LedgerProperties properties) {
+        this.accountRepository = accountRepository;
+        this.ledgerWriter = ledgerWriter;
+        this.stripes = new ReentrantLock[properties.stripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        log.info("Леджер в памяти включен, полос блокировок: {}", stripes.length);
+    }
+
+    public LedgerPosting deposit(String accountNumber, BigDecimal amount, String description) {
+        LedgerAccount account = resolve(accountNumber);
+        ReentrantLock lock = stripes[stripeIndex(accountNumber)];
+
+        LedgerPosting posting;
+        lock.lock();
+        try {
+            ledgerWriter.requireAccepting();
+            posting = submit(posting(account, TransactionType.DEPOSIT, amount,
+                    account.getBalance().add(amount), description)).getFirst();
+            account.setBalance(posting.balanceAfter());
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(posting, lock, lock, () -> account.setBalance(account.getBalance().subtract(amount)));
+        return posting;
+    }
+
+    public LedgerPosting withdraw(String accountNumber, BigDecimal amount, String description) {
+        LedgerAccount account = resolve(accountNumber);
+        ReentrantLock lock = stripes[stripeIndex(accountNumber)];
+
+        LedgerPosting posting;
+        lock.lock();
+        try {
+            ledgerWriter.requireAccepting();
+            requireFunds(account, amount);
+            posting = submit(posting(account, TransactionType.WITHDRAWAL, amount,
+                    account.getBalance().subtract(amount), description)).getFirst();
+            account.setBalance(posting.balanceAfter());
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(posting, lock, lock, () -> account.setBalance(account.getBalance().add(amount)));
+        return posting;
+    }
+
+    public List<LedgerPosting> transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        LedgerAccount fromAccount = resolve(fromAccountNumber);
+        LedgerAccount toAccount = resolve(toAccountNumber);
+
+        // Полосы захватываются по возрастанию индекса, поэтому встречные переводы не блокируют друг друга
+        int fromStripe = stripeIndex(fromAccountNumber);
+        int toStripe = stripeIndex(toAccountNumber);
+        ReentrantLock first = stripes[Math.min(fromStripe, toStripe)];
+        ReentrantLock second = stripes[Math.max(fromStripe, toStripe)];
+
+        List<LedgerPosting> postings;
+        lock(first, second);
+        try {
+            ledgerWriter.requireAccepting();
+            requireFunds(fromAccount, amount);
+
+            // Обе ноги уходят в журнал одной записью группы, балансы меняются только после этого
+            postings = submit(
+                    posting(fromAccount, TransactionType.TRANSFER_OUT, amount,
+                            fromAccount.getBalance().subtract(amount), "Перевод на счет: " + toAccountNumber),
+                    posting(toAccount, TransactionType.TRANSFER_IN, amount,
+                            toAccount.getBalance().add(amount), "Перевод с счета: " + fromAccountNumber));
+            fromAccount.setBalance(postings.getFirst().balanceAfter());
+            toAccount.setBalance(postings.getLast().balanceAfter());
+        } finally {
+            unlock(first, second);
+        }
+        // Ответ после сброса журнала, но уже без блокировок: ожидание диска не задерживает другие проводки по счету
+        awaitDurable(postings.getLast(), first, second, () -> {
+            fromAccount.setBalance(fromAccount.getBalance().add(amount));
+            toAccount.setBalance(toAccount.getBalance().subtract(amount));
+        });
+        return postings;
+    }
+
+    public Optional<BigDecimal> balanceOf(String accountNumber) {
+        LedgerAccount account = accounts.get(accountNumber);
+        return account != null ? Optional.of(account.getBalance()) : Optional.empty();
+    }
+
+    private LedgerPosting posting(LedgerAccount account, TransactionType type, BigDecimal amount,
+                                  BigDecimal balanceAfter, String description) {
+        return new LedgerPosting(
+                account.getId(),
+                account.getAccountNumber(),
+                type,
+                amount,
+                balanceAfter,
+                description,
+                LocalDateTime.now()
+        );
+    }
+
+    // Постановка в очередь под блокировкой сохраняет порядок проводок по счету
+    private List<LedgerPosting> submit(LedgerPosting... postings) {
+        return ledgerWriter.submit(List.of(postings));
+    }
+
+    /**
+     * Клиент получает ошибку, если журнал не сбросил проводку на диск. Тогда ее изменение балансов
+     * откатывается разностью, а не возвратом старого значения: после сбоя новые проводки не принимаются,
+     * но параллельные, начатые раньше, откатываются так же и в любом порядке. В БД такие записи
+     * не переносятся, см. {@link LedgerWriter#submit}.
+     */
+    private void awaitDurable(LedgerPosting posting, ReentrantLock first, ReentrantLock second, Runnable rollback) {
+        try {
+            ledgerWriter.awaitDurable(posting);
+        } catch (RuntimeException e) {
+            lock(first, second);
+            try {
+                rollback.run();
+            } finally {
+                unlock(first, second);
+            }
+            throw e;
+        }
+    }
+
+    private static void lock(ReentrantLock first, ReentrantLock second) {
+        first.lock();
+        if (second != first) {
+            second.lock();
+        }
+    }
+
+    private static void unlock(ReentrantLock first, ReentrantLock second) {
+        if (second != first) {
+            second.unlock();
+        }
+        first.unlock();
+    }
+
+    private void requireFunds(LedgerAccount account, BigDecimal amount) {
+        if (account.getBalance().compareTo(amount) < 0) {
+            throw new InsufficientFundsException(account.getAccountNumber(), account.getBalance(), amount);
+        }
+    }
+
+    private LedgerAccount resolve(String accountNumber) {
+        LedgerAccount account = accounts.get(accountNumber);
+        if (account != null) {
+            return account;
+        }
+
+        Account entity = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+
+        LedgerAccount loaded = new LedgerAccount(entity.getId(), accountNumber, entity.getBalance());
+        LedgerAccount existing = accounts.putIfAbsent(accountNumber, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private int stripeIndex(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), stripes.length);
+    }
+}
@@ -0,0 +1,22 @@
+package com.bank.account.ledger;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/** DOWN, пока проводки леджера не удается записать в БД: балансер уводит трафик, новые проводки и так отклоняются. */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "bank.ledger", name = "enabled", havingValue = "true")
+public class LedgerHealthIndicator implements HealthIndicator {
+
+    private final LedgerWriter ledgerWriter;
+
+    @Override
+    public Health health() {
+        Health.Builder health = ledgerWriter.failing() ? Health.down() : Health.up();
+        return health.withDetail("pending", ledgerWriter.pending()).build();
+    }
+}
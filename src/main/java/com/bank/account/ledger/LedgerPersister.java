@@ -0,0 +1,71 @@
+package com.bank.account.ledger;
+
+import com.bank.account.model.LedgerJournalCheckpoint;
+import com.bank.account.model.Transaction;
+import com.bank.account.outbox.OutboxWriter;
+import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.LedgerJournalCheckpointRepository;
+import com.bank.account.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "bank.ledger", name = "enabled", havingValue = "true")
+public class LedgerPersister {
+
+    private static final String JOURNAL_CHECKPOINT = "ledger";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final OutboxWriter outboxWriter;
+    private final LedgerJournalCheckpointRepository checkpointRepository;
+
+    @Transactional
+    public void persist(List<LedgerPosting> postings) {
+        List<Transaction> transactions = new ArrayList<>(postings.size());
+        // Последний баланс по каждому счету; TreeMap задает одинаковый порядок UPDATE во всех пачках
+        Map<String, BigDecimal> balances = new TreeMap<>();
+
+        for (LedgerPosting posting : postings) {
+            transactions.add(Transaction.builder()
+                    .account(accountRepository.getReferenceById(posting.accountId()))
+                    .amount(posting.amount())
+                    .type(posting.type())
+                    .description(posting.description())
+                    .balanceAfter(posting.balanceAfter())
+                    .timestamp(posting.timestamp())
+                    .build());
+            balances.put(posting.accountId(), posting.balanceAfter());
+        }
+
+        transactionRepository.saveAll(transactions);
+        for (int i = 0; i < transactions.size(); i++) {
+            outboxWriter.append(transactions.get(i), postings.get(i).accountNumber());
+        }
+        balances.forEach(accountRepository::updateBalance);
+
+        long lastSequence = postings.getLast().sequence();
+        if (lastSequence > 0) {
+            LedgerJournalCheckpoint checkpoint = checkpointRepository.findById(JOURNAL_CHECKPOINT)
+                    .orElseGet(() -> new LedgerJournalCheckpoint(JOURNAL_CHECKPOINT, 0L));
+            checkpoint.setAppliedSequence(Math.max(checkpoint.getAppliedSequence(), lastSequence));
+            checkpointRepository.save(checkpoint);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long appliedSequence() {
+        return checkpointRepository.findById(JOURNAL_CHECKPOINT)
+                .map(LedgerJournalCheckpoint::getAppliedSequence)
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,28 @@
+package com.bank.account.ledger;
+
+import com.bank.account.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record LedgerPosting(
+        String accountId,
+        String accountNumber,
+        TransactionType type,
+        BigDecimal amount,
+        BigDecimal balanceAfter,
+        String description,
+        LocalDateTime timestamp,
+        // Номер записи в журнале, 0 — журнал выключен
+        long sequence
+) {
+
+    public LedgerPosting(String accountId, String accountNumber, TransactionType type, BigDecimal amount,
+                         BigDecimal balanceAfter, String description, LocalDateTime timestamp) {
+        this(accountId, accountNumber, type, amount, balanceAfter, description, timestamp, 0);
+    }
+
+    public LedgerPosting withSequence(long sequence) {
+        return new LedgerPosting(accountId, accountNumber, type, amount, balanceAfter, description, timestamp, sequence);
+    }
+}
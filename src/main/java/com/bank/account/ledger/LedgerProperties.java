@@ -0,0 +1,30 @@
+package com.bank.account.ledger;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.ledger")
+public record LedgerProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("256") int stripes,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("10000") int queueCapacity,
+        @DefaultValue("50ms") Duration flushInterval,
+        @DefaultValue("1s") Duration retryBackoff,
+        // После стольких повторов пачка откладывается в parkedDirectory, а запись идет дальше
+        @DefaultValue("5") int maxRetries,
+        @DefaultValue("ledger-parked") Path parkedDirectory,
+        @DefaultValue("30s") Duration shutdownTimeout,
+        @DefaultValue Journal journal
+) {
+
+    public record Journal(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("ledger-journal") Path directory,
+            @DefaultValue("64MB") DataSize segmentSize
+    ) {}
+}
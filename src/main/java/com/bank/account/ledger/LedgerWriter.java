@@ -0,0 +1,260 @@
+package com.bank.account.ledger;
+
+import com.bank.account.exception.LedgerUnavailableException;
+import com.bank.account.ledger.journal.LedgerJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Фоновая запись проводок леджера в БД пачками. Очередь ограничена, поэтому при отставании БД
+ * проводки притормаживаются, а не копятся в памяти. С журналом (bank.ledger.journal.enabled)
+ * проводка сначала попадает в {@link LedgerJournal}, а после рестарта недописанное в БД
+ * переносится из журнала до приема новых проводок.
+ * <p>
+ * Пачка, которую не удалось записать за {@code bank.ledger.max-retries} попыток, откладывается
+ * в {@link ParkedPostings}, туда же при остановке уходит недописанная очередь. Пока запись в БД
+ * не удается, новые проводки не принимаются, а health-индикатор леджера сообщает DOWN.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.ledger", name = "enabled", havingValue = "true")
+public class LedgerWriter {
+
+    private final LedgerPersister ledgerPersister;
+    private final LedgerProperties properties;
+    private final LedgerJournal journal;
+    private final ParkedPostings parkedPostings;
+    private final BlockingQueue<LedgerPosting> queue;
+    private final Thread worker;
+    // Номера журнала и порядок в очереди совпадают: контрольная точка в БД — это непрерывный префикс журнала
+    private final ReentrantLock submitLock = new ReentrantLock();
+
+    private volatile boolean running = true;
+    // Последняя запись в БД не удалась; сбрасывается успешной пачкой или пробным запросом
+    private volatile boolean failing;
+    // Пачка, которую поток записи еще не записал в БД и не отложил; забирает ее тот, кто первым ее отложит
+    private final AtomicReference<List<LedgerPosting>> inFlight = new AtomicReference<>(List.of());
+
+    public LedgerWriter(LedgerPersister ledgerPersister,
+                        LedgerProperties properties,
+                        ObjectProvider<LedgerJournal> journal,
+                        ParkedPostings parkedPostings) {
+        this.ledgerPersister = ledgerPersister;
+        this.properties = properties;
+        this.journal = journal.getIfAvailable();
+        this.parkedPostings = parkedPostings;
+        this.queue = new LinkedBlockingQueue<>(properties.queueCapacity());
+        this.worker = Thread.ofPlatform()
+                .name("ledger-writer")
+                .daemon(true)
+                .unstarted(this::drainLoop);
+    }
+
+    @PostConstruct
+    void start() throws InterruptedException {
+        if (journal != null) {
+            replay(journal.recover(ledgerPersister.appliedSequence()));
+        }
+        worker.start();
+    }
+
+    /**
+     * Ставит проводки в очередь на запись в БД. С журналом возвращает проводки с номерами записей;
+     * подтверждать их клиенту можно только после {@link #awaitDurable}. В БД попадут только записи,
+     * сброшенные на диск: если журнал откажет раньше, проводки будут отброшены.
+     */
+    public List<LedgerPosting> submit(List<LedgerPosting> postings) {
+        if (journal == null) {
+            postings.forEach(this::enqueue);
+            return postings;
+        }
+
+        submitLock.lock();
+        try {
+            List<LedgerPosting> journaled = journal.append(postings);
+            journaled.forEach(this::enqueue);
+            return journaled;
+        } finally {
+            submitLock.unlock();
+        }
+    }
+
+    /** Проверка до изменения балансов в памяти: проводку, которую нельзя подтвердить или записать, не начинаем. */
+    public void requireAccepting() {
+        if (!running) {
+            throw new LedgerUnavailableException("Леджер останавливается");
+        }
+        if (failing) {
+            throw new LedgerUnavailableException("Запись проводок в БД временно не удается");
+        }
+        if (journal != null) {
+            journal.requireWritable();
+        }
+    }
+
+    public void awaitDurable(LedgerPosting posting) {
+        if (journal != null) {
+            journal.awaitDurable(posting.sequence());
+        }
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    public boolean failing() {
+        return failing;
+    }
+
+    /**
+     * Новые проводки перестают приниматься сразу, очередь дописывается в БД до shutdownTimeout.
+     * Что не успело, откладывается на диск: подтвержденная проводка не теряется и без журнала.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.join(properties.shutdownTimeout().toMillis());
+        if (!worker.isAlive() && queue.isEmpty()) {
+            return;
+        }
+
+        worker.interrupt();
+        worker.join(properties.retryBackoff().toMillis());
+
+        List<LedgerPosting> remaining = new ArrayList<>(inFlight.getAndSet(List.of()));
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty() && journal != null) {
+            // Все они есть в журнале и будут перенесены в БД при следующем старте
+            log.warn("Леджер остановлен, проводок ждут переноса из журнала: {}", remaining.size());
+        } else if (!remaining.isEmpty()) {
+            // Пачка, которую поток записи держал в момент остановки, могла и закоммититься: оператор сверяет по времени
+            parkedPostings.park(remaining, "остановка сервиса до записи в БД");
+        }
+    }
+
+    private void drainLoop() {
+        List<LedgerPosting> batch = new ArrayList<>(properties.batchSize());
+
+        while (running || !queue.isEmpty()) {
+            try {
+                LedgerPosting first = queue.poll(properties.flushInterval().toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (failing) {
+                        probe();
+                    }
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, properties.batchSize() - 1);
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void enqueue(LedgerPosting posting) {
+        try {
+            queue.put(posting);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Постановка проводки в очередь прервана", e);
+        }
+    }
+
+    // Несброшенные записи после сбоя msync клиентам не подтверждены, а леджер откатил их в памяти
+    private List<LedgerPosting> durablePrefix(List<LedgerPosting> batch) {
+        if (journal == null) {
+            return batch;
+        }
+        long durable = journal.awaitSynced(batch.getLast().sequence());
+        if (durable >= batch.getLast().sequence()) {
+            return batch;
+        }
+        List<LedgerPosting> prefix = batch.stream().filter(posting -> posting.sequence() <= durable).toList();
+        log.error("Журнал леджера не сброшен на диск, в БД не переносится проводок: {}", batch.size() - prefix.size());
+        return prefix;
+    }
+
+    private void replay(List<LedgerPosting> unapplied) throws InterruptedException {
+        for (int from = 0; from < unapplied.size(); from += properties.batchSize()) {
+            flush(unapplied.subList(from, Math.min(from + properties.batchSize(), unapplied.size())));
+        }
+        if (!unapplied.isEmpty()) {
+            log.info("Из журнала леджера перенесено в БД проводок: {}", unapplied.size());
+        }
+    }
+
+    private void flush(List<LedgerPosting> batch) throws InterruptedException {
+        batch = durablePrefix(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Копия: drainLoop переиспользует список пачки, а inFlight живет до записи или откладывания
+        batch = List.copyOf(batch);
+        inFlight.set(batch);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ledgerPersister.persist(batch);
+                inFlight.set(List.of());
+                failing = false;
+                if (journal != null) {
+                    journal.release(batch.getLast().sequence());
+                }
+                return;
+            } catch (RuntimeException e) {
+                failing = true;
+                if (attempt > properties.maxRetries()) {
+                    // Одна неприменимая проводка (например, счет удален) не должна останавливать запись остальных
+                    parkInFlight(e.toString());
+                    return;
+                }
+                log.error("Не удалось записать пачку проводок ({} шт.), попытка {} из {}, повтор через {}",
+                        batch.size(), attempt, properties.maxRetries() + 1, properties.retryBackoff(), e);
+                try {
+                    Thread.sleep(properties.retryBackoff().toMillis());
+                } catch (InterruptedException interrupted) {
+                    // Остановка посреди повторов; с журналом пачка будет перенесена при следующем старте
+                    if (journal == null) {
+                        parkInFlight("остановка сервиса до записи в БД");
+                    }
+                    throw interrupted;
+                }
+            }
+        }
+    }
+
+    private void parkInFlight(String reason) {
+        List<LedgerPosting> batch = inFlight.getAndSet(List.of());
+        if (!batch.isEmpty()) {
+            parkedPostings.park(batch, reason);
+        }
+    }
+
+    // Очередь пуста, а последняя запись не удалась: проверяем БД, чтобы снова начать принимать проводки
+    private void probe() throws InterruptedException {
+        try {
+            ledgerPersister.appliedSequence();
+            failing = false;
+            log.info("Запись проводок в БД восстановлена");
+        } catch (RuntimeException e) {
+            log.warn("БД для записи проводок по-прежнему недоступна: {}", e.getMessage());
+            Thread.sleep(properties.retryBackoff().toMillis());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bank.account.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Проводки, которые не удалось записать в БД: по одному NDJSON-файлу на пачку в bank.ledger.parked-directory.
+ * Файл сбрасывается на диск и появляется под итоговым именем атомарно, дальше пачку разбирает оператор.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.ledger", name = "enabled", havingValue = "true")
+class ParkedPostings {
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    ParkedPostings(LedgerProperties properties, ObjectMapper objectMapper) {
+        this.directory = properties.parkedDirectory();
+        this.objectMapper = objectMapper;
+    }
+
+    /** @return false, если и на диск записать не удалось: тогда проводки остаются только в логе */
+    boolean park(List<LedgerPosting> postings, String reason) {
+        try {
+            Files.createDirectories(directory);
+            String name = "parked-" + System.currentTimeMillis() + "-" + UUID.randomUUID();
+            Path temp = directory.resolve(name + ".tmp");
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                for (LedgerPosting posting : postings) {
+                    out.write(objectMapper.writeValueAsBytes(posting));
+                    out.write('\n');
+                }
+                channel.force(true);
+            }
+            Path file = Files.move(temp, directory.resolve(name + ".ndjson"), StandardCopyOption.ATOMIC_MOVE);
+
+            log.error("Пачка проводок ({} шт.) отложена в {}: {}", postings.size(), file.toAbsolutePath(), reason);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось отложить пачку проводок на диск ({}), проводки: {}", reason, postings, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.bank.account.ledger.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Сегмент журнала фиксированного размера, отображенный в память. Запись:
+ * [длина данных int][CRC32C int][номер long][данные]; CRC считается по номеру и данным.
+ * Нулевая длина — конец записанной части: файл создается заполненным нулями.
+ */
+final class JournalSegment {
+
+    static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    static final String SUFFIX = ".wal";
+
+    private final long firstSequence;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(long firstSequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.firstSequence = firstSequence;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, long size) throws IOException {
+        Path path = directory.resolve(fileName(firstSequence));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // map() с размером больше файла растягивает его, хвост читается нулями
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            channel.force(true);
+            return new JournalSegment(firstSequence, path, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Читает записи подряд, начиная с номера expectedSequence. Останавливается на нулевой длине,
+     * битой контрольной сумме или разрыве нумерации: это недописанный хвост, он не подтверждался.
+     *
+     * @return номер, ожидаемый после последней целой записи
+     */
+    static long scan(Path path, long expectedSequence, BiConsumer<Long, byte[]> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32C crc = new CRC32C();
+
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                long sequence = buffer.getLong();
+                if (length <= 0 || length > buffer.remaining() || sequence != expectedSequence) {
+                    break;
+                }
+
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+
+                crc.reset();
+                crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+
+                consumer.accept(sequence, payload);
+                expectedSequence++;
+            }
+            return expectedSequence;
+        }
+    }
+
+    static long firstSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    static String fileName(long firstSequence) {
+        return String.format("%020d%s", firstSequence, SUFFIX);
+    }
+
+    boolean hasRoom(int payloadLength) {
+        return buffer.remaining() >= HEADER_SIZE + payloadLength;
+    }
+
+    void write(long sequence, byte[] payload, CRC32C crc) {
+        crc.reset();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+        crc.update(payload);
+
+        // Длина пишется последней: запись без длины при чтении выглядит как конец журнала
+        int start = buffer.position();
+        buffer.position(start + Integer.BYTES);
+        buffer.putInt((int) crc.getValue());
+        buffer.putLong(sequence);
+        buffer.put(payload);
+        buffer.putInt(start, payload.length);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    Path path() {
+        return path;
+    }
+}
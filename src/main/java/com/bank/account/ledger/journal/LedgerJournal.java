@@ -0,0 +1,360 @@
+package com.bank.account.ledger.journal;
+
+import com.bank.account.ledger.LedgerPosting;
+import com.bank.account.ledger.LedgerProperties;
+import com.bank.account.model.TransactionType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Журнал упреждающей записи леджера. Проводка дописывается в отображенный в память сегмент,
+ * а клиент получает ответ после msync, который выполняет поток ledger-journal-sync сразу для
+ * всех записей, накопившихся с предыдущего сброса (групповой коммит). Записи, которые
+ * {@code LedgerWriter} уже перенес в БД, удаляются вместе с сегментами.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.ledger.journal", name = "enabled", havingValue = "true")
+public class LedgerJournal {
+
+    static final String SKIPPED_SUFFIX = ".skipped";
+
+    private final Path directory;
+    private final long segmentSize;
+
+    // Сегменты по номеру первой записи; последний — текущий
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final CRC32C crc = new CRC32C();
+    private volatile JournalSegment current;
+    private long lastSequence;
+    private volatile long writtenSequence;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition written = syncLock.newCondition();
+    private final Condition synced = syncLock.newCondition();
+    private volatile long durableSequence;
+    private volatile IOException syncFailure;
+    private volatile boolean running;
+    private Thread syncThread;
+
+    public LedgerJournal(LedgerProperties properties) {
+        this.directory = properties.journal().directory();
+        this.segmentSize = properties.journal().segmentSize().toBytes();
+    }
+
+    /**
+     * Читает журнал с диска и открывает новый сегмент для записи. Вызывается один раз до первой проводки.
+     *
+     * @param appliedSequence последняя запись, уже перенесенная в БД
+     * @return записи после appliedSequence, которые нужно перенести в БД
+     */
+    public List<LedgerPosting> recover(long appliedSequence) {
+        try {
+            Files.createDirectories(directory);
+            List<LedgerPosting> unapplied = new ArrayList<>();
+
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(path -> path.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+
+            long next = appliedSequence + 1;
+            for (int i = 0; i < files.size(); i++) {
+                Path file = files.get(i);
+                long first = JournalSegment.firstSequence(file);
+                if (first > next) {
+                    log.warn("Разрыв в журнале леджера перед {}, дальнейшие сегменты не читаются", file);
+                    setAside(files.subList(i, files.size()));
+                    break;
+                }
+                segments.put(first, file);
+                // Сегмент целиком до appliedSequence тоже читается: так проверяется непрерывность нумерации
+                next = JournalSegment.scan(file, Math.min(first, next), (sequence, payload) -> {
+                    if (sequence > appliedSequence) {
+                        unapplied.add(decode(payload).withSequence(sequence));
+                    }
+                });
+            }
+
+            lastSequence = Math.max(next - 1, appliedSequence);
+            writtenSequence = lastSequence;
+            durableSequence = lastSequence;
+
+            // Хвост последнего сегмента мог быть недописан: пишем в новый, старые удалит release().
+            // Сегмент с тем же именем не содержит ни одной целой записи (пустой после рестарта без проводок
+            // или оборванный на первой), поэтому создается заново
+            Path tail = directory.resolve(JournalSegment.fileName(lastSequence + 1));
+            Files.deleteIfExists(tail);
+            current = JournalSegment.create(directory, lastSequence + 1, segmentSize);
+            segments.put(current.firstSequence(), current.path());
+
+            running = true;
+            syncThread = Thread.ofPlatform()
+                    .name("ledger-journal-sync")
+                    .daemon(true)
+                    .start(this::syncLoop);
+
+            log.info("Журнал леджера {}: последняя запись {}, к переносу в БД {}",
+                    directory.toAbsolutePath(), lastSequence, unapplied.size());
+            return unapplied;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал леджера " + directory, e);
+        }
+    }
+
+    /**
+     * Дописывает проводки в журнал подряд и присваивает им номера. Не ждет сброса на диск, см. {@link #awaitDurable}.
+     * После сбоя msync новые записи не принимаются: подтвердить их все равно нельзя.
+     */
+    public List<LedgerPosting> append(List<LedgerPosting> postings) {
+        List<byte[]> payloads = postings.stream().map(LedgerJournal::encode).toList();
+        // Обе ноги перевода ложатся в один сегмент: сбой ротации не оставит в журнале половину перевода
+        int length = payloads.stream().mapToInt(payload -> JournalSegment.HEADER_SIZE + payload.length).sum()
+                - JournalSegment.HEADER_SIZE;
+        List<LedgerPosting> journaled = new ArrayList<>(postings.size());
+
+        appendLock.lock();
+        try {
+            requireWritable();
+            if (!current.hasRoom(length)) {
+                rotate(length);
+            }
+            for (int i = 0; i < postings.size(); i++) {
+                byte[] payload = payloads.get(i);
+                long sequence = ++lastSequence;
+                current.write(sequence, payload, crc);
+                journaled.add(postings.get(i).withSequence(sequence));
+            }
+            writtenSequence = lastSequence;
+        } finally {
+            appendLock.unlock();
+        }
+
+        syncLock.lock();
+        try {
+            written.signal();
+        } finally {
+            syncLock.unlock();
+        }
+        return journaled;
+    }
+
+    /** Бросает исключение, если журнал не может принять запись: сбой msync или остановка. */
+    public void requireWritable() {
+        if (syncFailure != null) {
+            throw new UncheckedIOException("Журнал леджера недоступен", syncFailure);
+        }
+        if (!running) {
+            throw new IllegalStateException("Журнал леджера закрыт");
+        }
+    }
+
+    /** Ждет, пока запись с номером sequence и все предыдущие окажутся на диске. */
+    public void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (syncFailure != null) {
+                    throw new UncheckedIOException("Журнал леджера недоступен", syncFailure);
+                }
+                if (!running) {
+                    throw new IllegalStateException("Журнал леджера закрыт");
+                }
+                synced.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание записи журнала прервано", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Ждет сброса записи sequence, но вместо исключения возвращает номер последней записи на диске:
+     * запись в БД переносит только сброшенный префикс, остальное клиентам не подтверждалось.
+     */
+    public long awaitSynced(long sequence) {
+        if (durableSequence >= sequence) {
+            return durableSequence;
+        }
+        syncLock.lock();
+        try {
+            while (durableSequence < sequence && syncFailure == null && running) {
+                synced.await();
+            }
+            return durableSequence;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return durableSequence;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /** Удаляет сегменты, все записи которых уже перенесены в БД. Текущий сегмент не трогается. */
+    public void release(long appliedSequence) {
+        for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+            Map.Entry<Long, Path> following = segments.higherEntry(entry.getKey());
+            if (following == null || following.getKey() - 1 > appliedSequence) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(entry.getValue());
+                segments.remove(entry.getKey());
+            } catch (IOException e) {
+                log.warn("Не удалось удалить сегмент журнала {}: {}", entry.getValue(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException, IOException {
+        if (syncThread == null) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            running = false;
+            written.signal();
+        } finally {
+            syncLock.unlock();
+        }
+        syncThread.join();
+        current.close();
+    }
+
+    // Сегменты после разрыва не переносятся, но остаются оператору под другим именем: с ними не столкнется ротация
+    private static void setAside(List<Path> files) throws IOException {
+        for (Path file : files) {
+            Path skipped = file.resolveSibling(file.getFileName() + SKIPPED_SUFFIX);
+            Files.move(file, skipped, StandardCopyOption.REPLACE_EXISTING);
+            log.warn("Сегмент журнала леджера после разрыва сохранен как {}", skipped);
+        }
+    }
+
+    private void rotate(int payloadLength) {
+        if (JournalSegment.HEADER_SIZE + payloadLength > segmentSize) {
+            throw new IllegalArgumentException("Проводка больше сегмента журнала: " + payloadLength + " байт");
+        }
+        try {
+            // Старый сегмент сбрасывается до переключения: поток синхронизации сбрасывает только текущий
+            JournalSegment previous = current;
+            previous.force();
+            current = JournalSegment.create(directory, lastSequence + 1, segmentSize);
+            segments.put(current.firstSequence(), current.path());
+            previous.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать сегмент журнала леджера", e);
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            syncLock.lock();
+            try {
+                while (running && writtenSequence <= durableSequence) {
+                    written.await(100, TimeUnit.MILLISECONDS);
+                }
+                if (!running && writtenSequence <= durableSequence) {
+                    synced.signalAll();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                syncLock.unlock();
+            }
+
+            // Сначала номер, потом сегмент: записи до target лежат либо в нем, либо в уже сброшенных при ротации
+            long target = writtenSequence;
+            JournalSegment segment = current;
+            try {
+                segment.force();
+            } catch (RuntimeException e) {
+                syncFailure = new IOException("Сбой msync журнала леджера", e);
+                log.error("Не удалось сбросить журнал леджера на диск", e);
+            }
+
+            syncLock.lock();
+            try {
+                if (syncFailure == null) {
+                    durableSequence = target;
+                }
+                synced.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+            if (syncFailure != null) {
+                return;
+            }
+        }
+    }
+
+    private static byte[] encode(LedgerPosting posting) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(160);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(posting.accountId());
+            out.writeUTF(posting.accountNumber());
+            out.writeByte(posting.type().ordinal());
+            out.writeUTF(posting.amount().toPlainString());
+            out.writeUTF(posting.balanceAfter().toPlainString());
+            out.writeUTF(posting.description() != null ? posting.description() : "");
+            out.writeUTF(posting.timestamp().toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static LedgerPosting decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return new LedgerPosting(
+                    in.readUTF(),
+                    in.readUTF(),
+                    TransactionType.values()[in.readUnsignedByte()],
+                    new BigDecimal(in.readUTF()),
+                    new BigDecimal(in.readUTF()),
+                    in.readUTF(),
+                    LocalDateTime.parse(in.readUTF())
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
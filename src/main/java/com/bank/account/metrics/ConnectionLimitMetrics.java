@@ -0,0 +1,34 @@
+package com.bank.account.metrics;
+
+import com.bank.account.config.ConnectionLimitingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Очередь перед пулом в режиме виртуальных потоков. Насыщение самого пула Hikari
+ * (hikaricp.connections.active/pending) публикует Spring Boot.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConnectionLimitMetrics implements MeterBinder {
+
+    private final DataSource dataSource;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(dataSource instanceof ConnectionLimitingDataSource limited)) {
+            return;
+        }
+        Gauge.builder("bank.jdbc.connection-limit.waiting", limited, ConnectionLimitingDataSource::queueLength)
+                .description("Потоки, ожидающие разрешения на соединение")
+                .register(registry);
+        Gauge.builder("bank.jdbc.connection-limit.available", limited, ConnectionLimitingDataSource::availablePermits)
+                .description("Свободные разрешения на соединение")
+                .register(registry);
+    }
+}
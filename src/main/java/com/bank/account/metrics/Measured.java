@@ -0,0 +1,17 @@
+package com.bank.account.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Таймер bank.operation с тегами operation и outcome на вызов метода Spring-бина.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Measured {
+
+    /** Значение тега operation, например {@code account.deposit}. */
+    String value();
+}
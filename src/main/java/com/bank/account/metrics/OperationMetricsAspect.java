@@ -0,0 +1,65 @@
+package com.bank.account.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Снаружи транзакции: конфликт версий при коммите попадает в outcome=optimistic_lock, а время
+ * включает сам коммит. Таймеры всех исходов регистрируются при первом вызове операции, поэтому
+ * на горячем пути нет ни поиска в реестре, ни аллокаций.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class OperationMetricsAspect {
+
+    public static final String METRIC = "bank.operation";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    @Around("@annotation(measured)")
+    public Object measure(ProceedingJoinPoint joinPoint, Measured measured) throws Throwable {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            timers(measured.value())[outcome.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer[] timers(String operation) {
+        Timer[] operationTimers = timers.get(operation);
+        return operationTimers != null ? operationTimers : timers.computeIfAbsent(operation, this::register);
+    }
+
+    private Timer[] register(String operation) {
+        Outcome[] outcomes = Outcome.values();
+        Timer[] operationTimers = new Timer[outcomes.length];
+        for (Outcome outcome : outcomes) {
+            operationTimers[outcome.ordinal()] = Timer.builder(METRIC)
+                    .description("Операции со счетами и проводками")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome.tag())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        return operationTimers;
+    }
+}
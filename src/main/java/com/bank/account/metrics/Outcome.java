@@ -0,0 +1,38 @@
+package com.bank.account.metrics;
+
+import com.bank.account.exception.AccountNotFoundException;
+import com.bank.account.exception.InsufficientFundsException;
+import com.bank.account.exception.UserNotFoundException;
+import com.bank.account.exception.ValidationException;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.Locale;
+
+public enum Outcome {
+    SUCCESS, INSUFFICIENT_FUNDS, NOT_FOUND, OPTIMISTIC_LOCK, VALIDATION, ERROR;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    public String tag() {
+        return tag;
+    }
+
+    public static Outcome of(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InsufficientFundsException) {
+                return INSUFFICIENT_FUNDS;
+            }
+            if (cause instanceof AccountNotFoundException || cause instanceof UserNotFoundException) {
+                return NOT_FOUND;
+            }
+            if (cause instanceof ValidationException) {
+                return VALIDATION;
+            }
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException) {
+                return OPTIMISTIC_LOCK;
+            }
+        }
+        return ERROR;
+    }
+}
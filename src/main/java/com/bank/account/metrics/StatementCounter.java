@@ -0,0 +1,27 @@
+package com.bank.account.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает SQL, которые Hibernate готовит в текущем потоке. Подключается свойством
+ * hibernate.session_factory.statement_inspector, значение снимает {@link StatementMetricsFilter}.
+ * Запросы через JdbcTemplate (атомарные балансы) сюда не попадают.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /** Возвращает накопленное число запросов и обнуляет счетчик потока. */
+    public static int reset() {
+        int[] count = COUNT.get();
+        int value = count[0];
+        count[0] = 0;
+        return value;
+    }
+}
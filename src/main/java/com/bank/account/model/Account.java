@@ -2,8 +2,10 @@ package com.bank.account.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -17,7 +19,8 @@ import java.util.List;
 @ToString(onlyExplicitlyIncluded = true)
 public class Account {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     @EqualsAndHashCode.Include
     @ToString.Include
     @Setter(AccessLevel.NONE)
@@ -45,6 +48,18 @@ public class Account {
     @Column
     private LocalDateTime createdAt;
 
+    // Число слотов разделенного баланса (BalanceSlot); null или 0 — баланс целиком в этой строке
+    @Column
+    private Integer balanceSlots;
+
+    // Последний день, за который начислены проценты: повторный прогон за ту же дату счет пропускает
+    @Column
+    private LocalDate interestAccruedThrough;
+
+    // Доли копейки, отброшенные при выплате, переходят в начисление следующего дня
+    @Column(precision = 19, scale = 10)
+    private BigDecimal interestCarry;
+
     @Version
     @Setter(AccessLevel.NONE)
     private Long version;
@@ -0,0 +1,17 @@
+package com.bank.account.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "account_number_blocks")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter @Setter
+public class AccountNumberBlock {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long nextValue;
+}
@@ -0,0 +1,53 @@
+package com.bank.account.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Итог дня по счету: баланс на конец дня и обороты за день. Строка есть только за дни с проводками.
+ */
+@Entity
+@Table(name = "balance_checkpoints", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_balance_checkpoints_account_date", columnNames = {"account_id", "business_date"})
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter @Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(onlyExplicitlyIncluded = true)
+public class BalanceCheckpoint {
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    @Setter(AccessLevel.NONE)
+    private UUID id;
+
+    @Column(name = "account_id", nullable = false)
+    @ToString.Include
+    private String accountId;
+
+    @Column(name = "business_date", nullable = false)
+    @ToString.Include
+    private LocalDate businessDate;
+
+    @Column(nullable = false)
+    private BigDecimal closingBalance;
+
+    @Column(nullable = false)
+    private BigDecimal credits;
+
+    @Column(nullable = false)
+    private BigDecimal debits;
+
+    @Column(nullable = false)
+    private long transactionCount;
+}
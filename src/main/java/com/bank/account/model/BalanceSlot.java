@@ -0,0 +1,46 @@
+package com.bank.account.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Часть баланса счета в режиме разделенного баланса: зачисления расходятся по слотам,
+ * чтобы параллельные переводы на горячий счет не упирались в одну строку accounts.
+ * Баланс счета — accounts.balance плюс сумма его слотов.
+ */
+@Entity
+@Table(name = "balance_slots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_balance_slots_account_slot", columnNames = {"account_id", "slot"})
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter @Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(onlyExplicitlyIncluded = true)
+public class BalanceSlot {
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    @Setter(AccessLevel.NONE)
+    private UUID id;
+
+    @Column(name = "account_id", nullable = false)
+    @ToString.Include
+    private String accountId;
+
+    @Column(nullable = false)
+    @ToString.Include
+    private int slot;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private BigDecimal balance = BigDecimal.ZERO;
+}
@@ -0,0 +1,57 @@
+package com.bank.account.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter @Setter
+public class IdempotencyRecord implements Persistable<String> {
+
+    // операция:счет:ключ клиента
+    @Id
+    @Column(length = 200)
+    private String id;
+
+    // Параметры исходного запроса: тот же ключ с другой суммой — ошибка клиента, а не повтор
+    @Column(nullable = false)
+    private String fingerprint;
+
+    // Исходный ответ в JSON; пусто, пока операция с зарезервированным ключом не выполнилась
+    @Column(length = 4000)
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Ключ назначается клиентом: без флага save() сделал бы merge и мог перезаписать чужую запись
+    @Transient
+    @Builder.Default
+    private boolean persisted = false;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
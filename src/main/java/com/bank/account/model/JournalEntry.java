@@ -0,0 +1,86 @@
+package com.bank.account.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Проводка перевода по двойной записи: одна строка на перевод, ноги списания и зачисления —
+ * строки transactions со ссылкой на нее. Номера обоих счетов хранятся здесь, поэтому вторая
+ * сторона перевода находится по первичному ключу записи без самосоединения transactions.
+ */
+@Entity
+@Table(name = "journal_entries")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter @Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(onlyExplicitlyIncluded = true)
+public class JournalEntry {
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    @Setter(AccessLevel.NONE)
+    private UUID id;
+
+    @Column(nullable = false)
+    @ToString.Include
+    private String debitAccountNumber;
+
+    @Column(nullable = false)
+    @ToString.Include
+    private String creditAccountNumber;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    // Ноги заполняют debit()/credit(): обратной навигации из БД нет, чтобы не индексировать transactions.journal_entry_id
+    @Transient
+    @Builder.Default
+    private List<Transaction> legs = new ArrayList<>();
+
+    public static JournalEntry transfer(String debitAccountNumber, String creditAccountNumber, BigDecimal amount) {
+        return JournalEntry.builder()
+                .debitAccountNumber(debitAccountNumber)
+                .creditAccountNumber(creditAccountNumber)
+                .amount(amount)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    // Счет может быть ссылкой без загрузки: номера берутся из самой записи
+    public Transaction debit(Account account, BigDecimal balanceAfter) {
+        return leg(account, TransactionType.TRANSFER_OUT, balanceAfter, "Перевод на счет: " + creditAccountNumber);
+    }
+
+    public Transaction credit(Account account, BigDecimal balanceAfter) {
+        return leg(account, TransactionType.TRANSFER_IN, balanceAfter, "Перевод с счета: " + debitAccountNumber);
+    }
+
+    private Transaction leg(Account account, TransactionType type, BigDecimal balanceAfter, String description) {
+        Transaction leg = Transaction.builder()
+                .account(account)
+                .journalEntry(this)
+                .amount(amount)
+                .type(type)
+                .description(description)
+                .balanceAfter(balanceAfter)
+                .timestamp(timestamp)
+                .build();
+        legs.add(leg);
+        return leg;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bank.account.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Последняя запись журнала леджера, перенесенная в БД. Обновляется в одной транзакции с проводками.
+ */
+@Entity
+@Table(name = "ledger_journal_checkpoints")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter @Setter
+public class LedgerJournalCheckpoint {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long appliedSequence;
+}
@@ -0,0 +1,48 @@
+package com.bank.account.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "outbox_events")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter @Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(onlyExplicitlyIncluded = true)
+public class OutboxEvent {
+
+    // UUIDv7: порядок по id совпадает с порядком записи, отдельный индекс для выборки не нужен
+    @Id
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    @Setter(AccessLevel.NONE)
+    private UUID id;
+
+    @Column(nullable = false, length = 64)
+    @ToString.Include
+    private String type;
+
+    @Column(nullable = false)
+    private UUID aggregateId;
+
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -2,13 +2,19 @@ package com.bank.account.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_account_ts", columnList = "account_id, timestamp DESC, id DESC"),
+        @Index(name = "idx_transactions_account_type_ts", columnList = "account_id, type, timestamp DESC, id DESC"),
+        @Index(name = "idx_transactions_ts", columnList = "timestamp")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,16 +22,24 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     @EqualsAndHashCode.Include
     @ToString.Include
     @Setter(AccessLevel.NONE)
-    private String id;
+    private UUID id;
 
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
 
+    // Перевод, к которому относится нога; у пополнений и снятий пусто
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "journal_entry_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private JournalEntry journalEntry;
+
     @Column(nullable = false)
     private BigDecimal amount;
 
@@ -48,6 +62,12 @@ public class Transaction {
 
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
+        // Контрольные точки считаются по оборотам, balanceAfter — справка для выписки и истории
+        if (balanceAfter == null) {
+            throw new IllegalStateException("Проводка без баланса после операции: " + type + " " + amount);
+        }
     }
 }
@@ -1,5 +1,9 @@
 package com.bank.account.model;
 
 public enum TransactionType {
-    DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT
+    DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT;
+
+    public boolean isCredit() {
+        return this == DEPOSIT || this == TRANSFER_IN;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.bank.account.outbox;
+
+import com.bank.account.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Дописывает события в NDJSON-файл и сбрасывает его на диск до удаления пачки из таблицы.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.outbox", name = "sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path file;
+
+    public FileOutboxSink(OutboxProperties properties) {
+        this.file = properties.file();
+        // Недоступный каталог — ошибка конфигурации: лучше не стартовать, чем копить события в таблице
+        Path directory = file.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать каталог outbox " + directory, e);
+        }
+        if (!Files.isWritable(directory) || (Files.exists(file) && !Files.isWritable(file))) {
+            throw new IllegalStateException("Нет прав на запись событий outbox в " + file.toAbsolutePath());
+        }
+        log.info("События outbox пишутся в {}", file.toAbsolutePath());
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        StringBuilder lines = new StringBuilder(events.size() * 256);
+        for (OutboxEvent event : events) {
+            // payload уже JSON, вставляется как есть
+            lines.append("{\"id\":\"").append(event.getId())
+                    .append("\",\"type\":\"").append(event.getType())
+                    .append("\",\"createdAt\":\"").append(event.getCreatedAt())
+                    .append("\",\"payload\":").append(event.getPayload())
+                    .append("}\n");
+        }
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать события outbox в " + file, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.bank.account.outbox;
+
+import com.bank.account.model.OutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Хранит последние события в памяти: для тестов и нагрузочных прогонов без внешних систем.
+ */
+@Component
+@ConditionalOnProperty(prefix = "bank.outbox", name = "sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final ArrayDeque<OutboxEvent> events;
+    private long published;
+
+    public InMemoryOutboxSink(OutboxProperties properties) {
+        this.capacity = properties.memoryCapacity();
+        this.events = new ArrayDeque<>(capacity);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> batch) {
+        for (OutboxEvent event : batch) {
+            if (events.size() == capacity) {
+                events.pollFirst();
+            }
+            events.addLast(event);
+        }
+        published += batch.size();
+    }
+
+    public synchronized List<OutboxEvent> events() {
+        return new ArrayList<>(events);
+    }
+
+    public synchronized long published() {
+        return published;
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
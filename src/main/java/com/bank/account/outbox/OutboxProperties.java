@@ -0,0 +1,18 @@
+package com.bank.account.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.outbox")
+public record OutboxProperties(
+        @DefaultValue("true") boolean enabled,
+        // file, memory или custom — собственный бин OutboxSink
+        @DefaultValue("file") String sink,
+        @DefaultValue("outbox/events.ndjson") Path file,
+        @DefaultValue("10000") int memoryCapacity,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("500ms") Duration pollInterval
+) {}
@@ -0,0 +1,108 @@
+package com.bank.account.outbox;
+
+import com.bank.account.model.OutboxEvent;
+import com.bank.account.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновая доставка outbox: пачка блокируется (SKIP LOCKED), публикуется в {@link OutboxSink}
+ * и удаляется в одной транзакции. Пока пачки полные, опрос продолжается без паузы.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bank.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong pending = new AtomicLong();
+    // Время создания самого старого недоставленного события, 0 — очередь пуста
+    private final AtomicLong oldestCreatedAt = new AtomicLong();
+    private final Counter published;
+    private final Counter failures;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink sink,
+                       OutboxProperties properties,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.published = Counter.builder("bank.outbox.published")
+                .description("Доставленные события outbox")
+                .register(meterRegistry);
+        this.failures = Counter.builder("bank.outbox.failures")
+                .description("Неудачные попытки доставки пачки outbox")
+                .register(meterRegistry);
+        Gauge.builder("bank.outbox.pending", pending, AtomicLong::get)
+                .description("Недоставленные события outbox")
+                .register(meterRegistry);
+        Gauge.builder("bank.outbox.lag", this, OutboxRelay::lagSeconds)
+                .description("Возраст самого старого недоставленного события, секунды")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${bank.outbox.poll-interval:PT0.5S}")
+    public void relay() {
+        try {
+            Integer sent;
+            do {
+                sent = transactionTemplate.execute(status -> publishBatch());
+            } while (sent != null && sent == properties.batchSize());
+        } catch (RuntimeException e) {
+            // Пачка осталась в таблице и уйдет на следующем опросе
+            failures.increment();
+            log.warn("Не удалось доставить события outbox: {}", e.getMessage());
+        } finally {
+            refreshBacklog();
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findAllByOrderByIdAsc(Limit.of(properties.batchSize()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        sink.publish(batch);
+        outboxEventRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+        published.increment(batch.size());
+        return batch.size();
+    }
+
+    private void refreshBacklog() {
+        try {
+            pending.set(outboxEventRepository.count());
+            LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt();
+            oldestCreatedAt.set(oldest == null ? 0 : oldest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        } catch (RuntimeException e) {
+            log.debug("Не удалось обновить размер очереди outbox: {}", e.getMessage());
+        }
+    }
+
+    private double lagSeconds() {
+        long oldest = oldestCreatedAt.get();
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest) / 1000.0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.bank.account.outbox;
+
+import com.bank.account.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Получатель событий outbox. Доставка «хотя бы один раз»: если публикация прошла, а удаление
+ * пачки не зафиксировалось, пачка придет повторно, получатели дедуплицируют по id события.
+ */
+public interface OutboxSink {
+
+    /** Публикует пачку целиком или бросает исключение, тогда пачка останется в таблице. */
+    void publish(List<OutboxEvent> events);
+}
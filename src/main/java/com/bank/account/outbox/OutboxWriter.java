@@ -0,0 +1,65 @@
+package com.bank.account.outbox;
+
+import com.bank.account.model.OutboxEvent;
+import com.bank.account.model.Transaction;
+import com.bank.account.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Пишет событие о каждой проводке в outbox_events в транзакции самой проводки: событие
+ * появляется тогда и только тогда, когда зафиксирована строка Transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+
+    // Номер счета передается явно: у проводки может быть ссылка на счет без загрузки
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Transaction transaction, String accountNumber) {
+        if (properties.enabled()) {
+            outboxEventRepository.save(toEvent(transaction, accountNumber));
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<Transaction> transactions) {
+        if (!properties.enabled()) {
+            return;
+        }
+        List<OutboxEvent> events = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            events.add(toEvent(transaction, transaction.getAccount().getAccountNumber()));
+        }
+        outboxEventRepository.saveAll(events);
+    }
+
+    private OutboxEvent toEvent(Transaction transaction, String accountNumber) {
+        TransactionEvent payload = new TransactionEvent(
+                transaction.getId(),
+                accountNumber,
+                transaction.getType(),
+                transaction.getAmount(),
+                transaction.getBalanceAfter(),
+                transaction.getDescription(),
+                transaction.getTimestamp()
+        );
+
+        return OutboxEvent.builder()
+                .type("transaction." + transaction.getType().name().toLowerCase(Locale.ROOT))
+                .aggregateId(transaction.getId())
+                .payload(objectMapper.writeValueAsString(payload))
+                .build();
+    }
+}
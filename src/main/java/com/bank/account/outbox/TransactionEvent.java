@@ -0,0 +1,20 @@
+package com.bank.account.outbox;
+
+import com.bank.account.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Полезная нагрузка события о проводке, которое получают внешние системы.
+ */
+public record TransactionEvent(
+        UUID transactionId,
+        String accountNumber,
+        TransactionType type,
+        BigDecimal amount,
+        BigDecimal balanceAfter,
+        String description,
+        LocalDateTime timestamp
+) {}
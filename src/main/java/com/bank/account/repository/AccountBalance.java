@@ -0,0 +1,10 @@
+package com.bank.account.repository;
+
+import java.math.BigDecimal;
+
+public record AccountBalance(
+        String id,
+        String accountNumber,
+        String userId,
+        BigDecimal balance
+) {}
@@ -0,0 +1,19 @@
+package com.bank.account.repository;
+
+import com.bank.account.model.AccountNumberBlock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AccountNumberBlockRepository extends JpaRepository<AccountNumberBlock, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AccountNumberBlock b WHERE b.name = :name")
+    Optional<AccountNumberBlock> findForUpdate(@Param("name") String name);
+}
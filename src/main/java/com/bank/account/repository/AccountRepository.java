@@ -2,15 +2,52 @@ package com.bank.account.repository;
 
 import com.bank.account.model.Account;
 import com.bank.account.model.AccountType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface AccountRepository extends JpaRepository<Account, String> {
+public interface AccountRepository extends JpaRepository<Account, String>, JpaSpecificationExecutor<Account> {
 
     Optional<Account> findByAccountNumber(String accountNumber);
 
     List<Account> findByUserId(String UserId);
+
+    boolean existsByAccountNumberAndUserId(String accountNumber, String userId);
+
+    @Query("SELECT a.accountNumber FROM Account a WHERE a.user.id = :userId AND a.accountNumber IN :numbers")
+    List<String> findOwnedAccountNumbers(@Param("userId") String userId, @Param("numbers") Collection<String> numbers);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :numbers ORDER BY a.accountNumber")
+    List<Account> findAllByAccountNumberForUpdate(@Param("numbers") Collection<String> numbers);
+
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = :balance, a.version = a.version + 1 WHERE a.id = :id")
+    int updateBalance(@Param("id") String id, @Param("balance") BigDecimal balance);
+
+    // Только ключи по порядку: границы партиций пакетных заданий
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT a.id FROM Account a ORDER BY a.id")
+    Stream<String> streamIds();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT a.id FROM Account a WHERE a.type = :type ORDER BY a.id")
+    Stream<String> streamIdsByType(@Param("type") AccountType type);
+
+    long countByType(AccountType type);
 }
@@ -0,0 +1,40 @@
+package com.bank.account.repository;
+
+import com.bank.account.model.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, UUID> {
+
+    // Последняя точка не позже дня: один переход по индексу (account_id, business_date)
+    Optional<BalanceCheckpoint> findFirstByAccountIdAndBusinessDateLessThanEqualOrderByBusinessDateDesc(
+            String accountId, LocalDate businessDate);
+
+    // Последние точки до дня по пачке счетов: база для баланса на конец дня
+    @Query("SELECT c FROM BalanceCheckpoint c WHERE c.accountId IN :accountIds AND c.businessDate = " +
+            "(SELECT MAX(p.businessDate) FROM BalanceCheckpoint p " +
+            "WHERE p.accountId = c.accountId AND p.businessDate < :day)")
+    List<BalanceCheckpoint> findLatestBefore(@Param("accountIds") Collection<String> accountIds,
+                                             @Param("day") LocalDate day);
+
+    @Query("SELECT new com.bank.account.repository.PeriodTotals(" +
+            "COALESCE(SUM(c.credits), 0), COALESCE(SUM(c.debits), 0), COALESCE(SUM(c.transactionCount), 0)) " +
+            "FROM BalanceCheckpoint c " +
+            "WHERE c.accountId = :accountId AND c.businessDate BETWEEN :from AND :to")
+    PeriodTotals sumBetween(@Param("accountId") String accountId,
+                            @Param("from") LocalDate from,
+                            @Param("to") LocalDate to);
+
+    // Последний день, за который точки построены для всех счетов
+    @Query("SELECT MAX(c.businessDate) FROM BalanceCheckpoint c")
+    LocalDate findWatermark();
+}
@@ -0,0 +1,175 @@
+package com.bank.account.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Изменение баланса одним условным UPDATE, возвращающим новое значение.
+ * Заменяет чтение сущности и версионный UPDATE: нет лишнего SELECT и нет конфликтов @Version.
+ */
+@Slf4j
+@Repository
+public class BalanceRepository {
+
+    private static final String CREDIT =
+            "UPDATE accounts SET balance = balance + :amount, version = version + 1 " +
+            "WHERE account_number = :number";
+
+    private static final String DEBIT =
+            "UPDATE accounts SET balance = balance - :amount, version = version + 1 " +
+            "WHERE account_number = :number AND balance >= :amount";
+
+    private static final String CREDIT_SLOT =
+            "UPDATE balance_slots SET balance = balance + :amount WHERE account_id = :id AND slot = :slot";
+
+    private static final String DEBIT_SLOT =
+            "UPDATE balance_slots SET balance = balance - :amount " +
+            "WHERE account_id = :id AND slot = :slot AND balance >= :amount";
+
+    private static final String DEBIT_BY_ID =
+            "UPDATE accounts SET balance = balance - :amount, version = version + 1 " +
+            "WHERE id = :id AND balance >= :amount";
+
+    private static final String TOTAL_BALANCE =
+            "SELECT a.balance + COALESCE((SELECT SUM(s.balance) FROM balance_slots s WHERE s.account_id = a.id), 0) " +
+            "FROM accounts a WHERE a.id = :id";
+
+    private static final String LOCK_SLOTS =
+            "SELECT balance FROM balance_slots WHERE account_id = :id ORDER BY slot FOR UPDATE";
+
+    private static final String ZERO_SLOTS =
+            "UPDATE balance_slots SET balance = 0 WHERE account_id = :id";
+
+    private static final RowMapper<AccountBalance> ACCOUNT_BALANCE = (rs, rowNum) -> new AccountBalance(
+            rs.getString("id"),
+            rs.getString("account_number"),
+            rs.getString("user_id"),
+            rs.getBigDecimal("balance")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean returningSupported;
+
+    public BalanceRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        String product = jdbcTemplate.getJdbcTemplate().execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        // PostgreSQL понимает UPDATE ... RETURNING, H2 — SELECT ... FROM FINAL TABLE (UPDATE ...)
+        this.returningSupported = !"H2".equalsIgnoreCase(product);
+        log.info("Атомарные проводки: СУБД {}, RETURNING {}", product, returningSupported ? "включен" : "заменен FINAL TABLE");
+    }
+
+    public Optional<AccountBalance> credit(String accountNumber, BigDecimal amount) {
+        return update(CREDIT, accountNumber, amount);
+    }
+
+    /**
+     * Пустой результат означает, что счета нет или на нем недостаточно средств.
+     */
+    public Optional<AccountBalance> debit(String accountNumber, BigDecimal amount) {
+        return update(DEBIT, accountNumber, amount);
+    }
+
+    public Optional<BigDecimal> findBalance(String accountNumber) {
+        List<BigDecimal> balances = jdbcTemplate.queryForList(
+                "SELECT balance FROM accounts WHERE account_number = :number",
+                new MapSqlParameterSource("number", accountNumber),
+                BigDecimal.class
+        );
+        return balances.stream().findFirst();
+    }
+
+    private Optional<AccountBalance> update(String update, String accountNumber, BigDecimal amount) {
+        String sql = returningSupported
+                ? update + " RETURNING id, account_number, user_id, balance"
+                : "SELECT id, account_number, user_id, balance FROM FINAL TABLE (" + update + ")";
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("number", accountNumber)
+                .addValue("amount", amount);
+
+        return jdbcTemplate.query(sql, params, ACCOUNT_BALANCE).stream().findFirst();
+    }
+
+    /**
+     * Зачисление в слот разделенного баланса. false — слота нет (режим выключен на другом экземпляре).
+     */
+    public boolean creditSlot(String accountId, int slot, BigDecimal amount) {
+        return jdbcTemplate.update(CREDIT_SLOT, slotParams(accountId, slot, amount)) > 0;
+    }
+
+    public boolean debitSlot(String accountId, int slot, BigDecimal amount) {
+        return jdbcTemplate.update(DEBIT_SLOT, slotParams(accountId, slot, amount)) > 0;
+    }
+
+    public boolean debitById(String accountId, BigDecimal amount) {
+        return jdbcTemplate.update(DEBIT_BY_ID, new MapSqlParameterSource()
+                .addValue("id", accountId)
+                .addValue("amount", amount)) > 0;
+    }
+
+    /**
+     * Баланс счета вместе со слотами. Чужие незафиксированные зачисления в слоты не видны,
+     * поэтому для разделенного счета это снимок, а не строгая последовательность балансов.
+     */
+    public BigDecimal totalBalance(String accountId) {
+        return jdbcTemplate.queryForObject(TOTAL_BALANCE, new MapSqlParameterSource("id", accountId), BigDecimal.class);
+    }
+
+    /**
+     * Списание с разделенного счета, когда ни в одном слоте не хватило средств: блокируются строка счета
+     * и все слоты (в этом порядке), остатки слотов сводятся в accounts.balance. Пусто — не хватает и в сумме.
+     */
+    public Optional<BigDecimal> debitDrainingSlots(String accountId, BigDecimal amount) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", accountId);
+        BigDecimal main = jdbcTemplate.queryForObject(
+                "SELECT balance FROM accounts WHERE id = :id FOR UPDATE", params, BigDecimal.class);
+        BigDecimal slots = lockSlots(params);
+
+        BigDecimal total = main.add(slots);
+        if (total.compareTo(amount) < 0) {
+            return Optional.empty();
+        }
+
+        BigDecimal balance = total.subtract(amount);
+        jdbcTemplate.update(ZERO_SLOTS, params);
+        jdbcTemplate.update("UPDATE accounts SET balance = :balance, version = version + 1 WHERE id = :id",
+                new MapSqlParameterSource("id", accountId).addValue("balance", balance));
+        return Optional.of(balance);
+    }
+
+    /**
+     * Обнуляет слоты счета и возвращает их сумму; строку accounts вызывающий уже заблокировал
+     * и сам добавляет к ней результат.
+     */
+    public BigDecimal drainSlots(String accountId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", accountId);
+        BigDecimal drained = lockSlots(params);
+        if (drained.signum() != 0) {
+            jdbcTemplate.update(ZERO_SLOTS, params);
+        }
+        return drained;
+    }
+
+    private BigDecimal lockSlots(MapSqlParameterSource params) {
+        return jdbcTemplate.queryForList(LOCK_SLOTS, params, BigDecimal.class)
+                .stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private MapSqlParameterSource slotParams(String accountId, int slot, BigDecimal amount) {
+        return new MapSqlParameterSource()
+                .addValue("id", accountId)
+                .addValue("slot", slot)
+                .addValue("amount", amount);
+    }
+}
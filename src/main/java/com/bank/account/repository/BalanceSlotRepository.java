@@ -0,0 +1,30 @@
+package com.bank.account.repository;
+
+import com.bank.account.model.BalanceSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BalanceSlotRepository extends JpaRepository<BalanceSlot, UUID> {
+
+    @Modifying
+    @Query("DELETE FROM BalanceSlot s WHERE s.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") String accountId);
+
+    @Query("SELECT new com.bank.account.repository.SlotTotal(s.accountId, SUM(s.balance)) " +
+            "FROM BalanceSlot s WHERE s.accountId IN :accountIds GROUP BY s.accountId")
+    List<SlotTotal> sumByAccountIds(@Param("accountIds") Collection<String> accountIds);
+
+    // Обход идет от маленькой balance_slots, а не от всей accounts
+    @Query("SELECT new com.bank.account.repository.SlotLayout(a.id, a.accountNumber, a.user.id, a.balanceSlots) " +
+            "FROM Account a WHERE a.balanceSlots > 0 " +
+            "AND a.id IN (SELECT DISTINCT s.accountId FROM BalanceSlot s)")
+    List<SlotLayout> findLayouts();
+}
@@ -0,0 +1,87 @@
+package com.bank.account.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Начисление процентов в обход сущностей: порция счетов блокируется одним SELECT ... FOR UPDATE,
+ * новые балансы пишутся одним JDBC-пакетом UPDATE.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InterestAccrualRepository {
+
+    private static final String LOCK_CHUNK =
+            "SELECT id, account_number, user_id, balance, interest_carry, interest_accrued_through " +
+            "FROM accounts " +
+            "WHERE type = 'SAVINGS' " +
+            "AND (interest_accrued_through IS NULL OR interest_accrued_through < :date) " +
+            "AND (created_at IS NULL OR created_at < :dayEnd)";
+
+    private static final String APPLY =
+            "UPDATE accounts SET balance = :balance, interest_carry = :carry, " +
+            "interest_accrued_through = :date, version = version + 1 " +
+            "WHERE id = :id";
+
+    private static final RowMapper<SavingsBalance> SAVINGS_BALANCE = (rs, rowNum) -> {
+        Date accruedThrough = rs.getDate("interest_accrued_through");
+        return new SavingsBalance(
+                rs.getString("id"),
+                rs.getString("account_number"),
+                rs.getString("user_id"),
+                rs.getBigDecimal("balance"),
+                rs.getBigDecimal("interest_carry"),
+                accruedThrough != null ? accruedThrough.toLocalDate() : null
+        );
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Следующая порция счетов диапазона (afterId, lastId], еще не получивших проценты за date.
+     * Границы null — открытый край диапазона.
+     */
+    public List<SavingsBalance> lockChunk(String afterId, String lastId, LocalDate date, int limit) {
+        StringBuilder sql = new StringBuilder(LOCK_CHUNK);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("date", date)
+                .addValue("dayEnd", date.plusDays(1).atStartOfDay())
+                .addValue("limit", limit);
+
+        if (afterId != null) {
+            sql.append(" AND id > :afterId");
+            params.addValue("afterId", afterId);
+        }
+        if (lastId != null) {
+            sql.append(" AND id <= :lastId");
+            params.addValue("lastId", lastId);
+        }
+        sql.append(" ORDER BY id LIMIT :limit FOR UPDATE");
+
+        return jdbcTemplate.query(sql.toString(), params, SAVINGS_BALANCE);
+    }
+
+    public void applyAll(List<InterestUpdate> updates, LocalDate date) {
+        MapSqlParameterSource[] batch = new MapSqlParameterSource[updates.size()];
+        for (int i = 0; i < batch.length; i++) {
+            InterestUpdate update = updates.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("id", update.id())
+                    .addValue("balance", update.balance())
+                    .addValue("carry", update.carry())
+                    .addValue("date", date);
+        }
+        jdbcTemplate.batchUpdate(APPLY, batch);
+    }
+
+    public record InterestUpdate(String id, BigDecimal balance, BigDecimal carry) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.bank.account.repository;
+
+import com.bank.account.model.JournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, UUID> {
+}
@@ -0,0 +1,9 @@
+package com.bank.account.repository;
+
+import com.bank.account.model.LedgerJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerJournalCheckpointRepository extends JpaRepository<LedgerJournalCheckpoint, String> {
+}
@@ -0,0 +1,19 @@
+package com.bank.account.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Обороты за период: поступления (пополнения, входящие переводы) и списания.
+ */
+public record PeriodTotals(BigDecimal credits, BigDecimal debits, long transactionCount) {
+
+    public static final PeriodTotals EMPTY = new PeriodTotals(BigDecimal.ZERO, BigDecimal.ZERO, 0);
+
+    public PeriodTotals plus(PeriodTotals other) {
+        return new PeriodTotals(
+                credits.add(other.credits),
+                debits.add(other.debits),
+                transactionCount + other.transactionCount
+        );
+    }
+}
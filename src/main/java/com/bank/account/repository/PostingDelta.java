@@ -0,0 +1,15 @@
+package com.bank.account.repository;
+
+import com.bank.account.model.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Проводка без сущности и счета: для построения контрольных точек по дню.
+ */
+public record PostingDelta(String accountId, TransactionType type, BigDecimal amount) {
+
+    public boolean isCredit() {
+        return type.isCredit();
+    }
+}
@@ -0,0 +1,16 @@
+package com.bank.account.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Сберегательный счет, заблокированный для начисления процентов.
+ */
+public record SavingsBalance(
+        String id,
+        String accountNumber,
+        String userId,
+        BigDecimal balance,
+        BigDecimal interestCarry,
+        LocalDate interestAccruedThrough
+) {}
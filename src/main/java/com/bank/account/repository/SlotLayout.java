@@ -0,0 +1,11 @@
+package com.bank.account.repository;
+
+/**
+ * Счет в режиме разделенного баланса и число его слотов.
+ */
+public record SlotLayout(
+        String id,
+        String accountNumber,
+        String userId,
+        int slots
+) {}
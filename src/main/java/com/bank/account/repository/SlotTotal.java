@@ -0,0 +1,6 @@
+package com.bank.account.repository;
+
+import java.math.BigDecimal;
+
+public record SlotTotal(String accountId, BigDecimal balance) {
+}
@@ -2,15 +2,23 @@ package com.bank.account.repository;
 
 import com.bank.account.model.Account;
 import com.bank.account.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, String> {
+public interface TransactionRepository extends JpaRepository<Transaction, UUID>, JpaSpecificationExecutor<Transaction> {
     @Query("SELECT t FROM Transaction t JOIN t.account a WHERE a.accountNumber = :number ORDER BY t.timestamp DESC")
     List<Transaction> findByAccountNumber(@Param("number") String number);
 
@@ -20,4 +28,59 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
            "WHERE u.id = :userId " +
            "ORDER BY t.timestamp DESC")
     List<Transaction> findTop10ByUserId(@Param("userId") String userId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.account = :account ORDER BY t.timestamp, t.id")
+    Stream<Transaction> streamByAccount(@Param("account") Account account);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.account = :account " +
+            "AND t.timestamp >= :from AND t.timestamp < :to ORDER BY t.timestamp, t.id")
+    Stream<Transaction> streamByAccountBetween(@Param("account") Account account,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
+    Optional<Transaction> findFirstByAccountAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDescIdDesc(
+            Account account, LocalDateTime from, LocalDateTime to);
+
+    Optional<Transaction> findFirstByAccountAndTimestampLessThanOrderByTimestampDescIdDesc(
+            Account account, LocalDateTime to);
+
+    @Query("SELECT new com.bank.account.repository.PeriodTotals(" +
+            "COALESCE(SUM(CASE WHEN t.type IN (com.bank.account.model.TransactionType.DEPOSIT, " +
+            "com.bank.account.model.TransactionType.TRANSFER_IN) THEN t.amount ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN t.type IN (com.bank.account.model.TransactionType.WITHDRAWAL, " +
+            "com.bank.account.model.TransactionType.TRANSFER_OUT) THEN t.amount ELSE 0 END), 0), " +
+            "COUNT(t)) " +
+            "FROM Transaction t WHERE t.account = :account AND t.timestamp >= :from AND t.timestamp < :to")
+    PeriodTotals sumBetween(@Param("account") Account account,
+                            @Param("from") LocalDateTime from,
+                            @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.bank.account.repository.PeriodTotals(" +
+            "COALESCE(SUM(CASE WHEN t.type IN (com.bank.account.model.TransactionType.DEPOSIT, " +
+            "com.bank.account.model.TransactionType.TRANSFER_IN) THEN t.amount ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN t.type IN (com.bank.account.model.TransactionType.WITHDRAWAL, " +
+            "com.bank.account.model.TransactionType.TRANSFER_OUT) THEN t.amount ELSE 0 END), 0), " +
+            "COUNT(t)) " +
+            "FROM Transaction t WHERE t.account = :account AND t.timestamp < :to")
+    PeriodTotals sumBefore(@Param("account") Account account, @Param("to") LocalDateTime to);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.bank.account.repository.PostingDelta(t.account.id, t.type, t.amount) " +
+            "FROM Transaction t WHERE t.timestamp >= :from AND t.timestamp < :to " +
+            "ORDER BY t.account.id, t.timestamp, t.id")
+    Stream<PostingDelta> streamDeltasBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT MIN(t.timestamp) FROM Transaction t")
+    LocalDateTime findEarliestTimestamp();
 }
@@ -0,0 +1,19 @@
+package com.bank.account.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Признак изменения счета или всех счетов пользователя: число счетов, сумма версий строк accounts
+ * и время последней проводки. Меняется при любой проводке, в том числе в слот разделенного баланса.
+ * В тег добавляется отпечаток пользователя: у разных пользователей без счетов штампы совпадают.
+ */
+public record VersionStamp(long accounts, long version, LocalDateTime lastPostingAt) {
+
+    public String etag(String principal) {
+        long lastPosting = lastPostingAt != null
+                ? lastPostingAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + lastPostingAt.getNano() / 1_000
+                : 0;
+        return "W/\"" + principal + "-" + accounts + "-" + version + "-" + Long.toHexString(lastPosting) + "\"";
+    }
+}
@@ -0,0 +1,55 @@
+package com.bank.account.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+/**
+ * Версии для условных GET одним запросом без загрузки сущностей: последняя проводка каждого счета
+ * берется из индекса idx_transactions_account_ts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VersionStampRepository {
+
+    private static final String LAST_POSTING =
+            "(SELECT MAX(t.timestamp) FROM transactions t WHERE t.account_id = a.id)";
+
+    private static final String ACCOUNT_STAMP =
+            "SELECT 1 AS accounts, a.version AS version, " + LAST_POSTING + " AS last_posting_at " +
+            "FROM accounts a WHERE a.account_number = :number AND a.user_id = :userId";
+
+    private static final String USER_STAMP =
+            "SELECT COUNT(*) AS accounts, COALESCE(SUM(s.version), 0) AS version, MAX(s.last_posting_at) AS last_posting_at " +
+            "FROM (SELECT a.version AS version, " + LAST_POSTING + " AS last_posting_at " +
+            "FROM accounts a WHERE a.user_id = :userId) s";
+
+    private static final RowMapper<VersionStamp> VERSION_STAMP = (rs, rowNum) -> {
+        Timestamp lastPostingAt = rs.getTimestamp("last_posting_at");
+        return new VersionStamp(
+                rs.getLong("accounts"),
+                rs.getLong("version"),
+                lastPostingAt != null ? lastPostingAt.toLocalDateTime() : null
+        );
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public Optional<VersionStamp> forAccount(String accountNumber, String userId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("number", accountNumber)
+                .addValue("userId", userId);
+        return jdbcTemplate.query(ACCOUNT_STAMP, params, VERSION_STAMP)
+                .stream()
+                .findFirst();
+    }
+
+    public VersionStamp forUser(String userId) {
+        return jdbcTemplate.queryForObject(USER_STAMP, new MapSqlParameterSource("userId", userId), VERSION_STAMP);
+    }
+}
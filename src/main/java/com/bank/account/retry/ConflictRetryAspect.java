@@ -0,0 +1,118 @@
+package com.bank.account.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Стоит между метриками и @Transactional: каждая попытка — новая транзакция, а метрика операции
+ * видит итоговый результат. Пауза между попытками — экспоненциальная с полным джиттером, чтобы
+ * столкнувшиеся запросы не повторяли конфликт синхронно.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class ConflictRetryAspect {
+
+    public static final String METRIC = "bank.retry";
+
+    private final RetryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RetryCounters> counters = new ConcurrentHashMap<>();
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        // Внутри чужой транзакции повтор бесполезен: она уже помечена на откат, повторять должен внешний вызов
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        String operation = retryOnConflict.value();
+        RetryProperties.Policy policy = properties.policy(operation);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Object result = joinPoint.proceed();
+                if (attempt > 1) {
+                    counters(operation).recovered().increment();
+                }
+                return result;
+            } catch (Throwable e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                if (attempt >= policy.maxAttempts()) {
+                    counters(operation).exhausted().increment();
+                    log.warn("Операция {} не выполнена после {} попыток: {}", operation, attempt, e.getMessage());
+                    throw e;
+                }
+
+                counters(operation).retried().increment();
+                log.debug("Конфликт в операции {}, попытка {} из {}", operation, attempt, policy.maxAttempts());
+                pause(policy, attempt, e);
+            }
+        }
+    }
+
+    static boolean isConflict(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyFailureException || cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void pause(RetryProperties.Policy policy, int attempt, Throwable failure) throws Throwable {
+        double ceiling = Math.min(
+                policy.maxBackoff().toNanos(),
+                policy.initialBackoff().toNanos() * Math.pow(policy.multiplier(), attempt - 1)
+        );
+        long nanos = (long) (ThreadLocalRandom.current().nextDouble() * ceiling);
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    private RetryCounters counters(String operation) {
+        RetryCounters operationCounters = counters.get(operation);
+        return operationCounters != null ? operationCounters : counters.computeIfAbsent(operation, this::register);
+    }
+
+    private RetryCounters register(String operation) {
+        return new RetryCounters(
+                counter(operation, "retried"),
+                counter(operation, "recovered"),
+                counter(operation, "exhausted")
+        );
+    }
+
+    private Counter counter(String operation, String event) {
+        return Counter.builder(METRIC)
+                .description("Повторы транзакций после конфликта параллельного изменения")
+                .tag("operation", operation)
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+
+    private record RetryCounters(Counter retried, Counter recovered, Counter exhausted) {}
+}
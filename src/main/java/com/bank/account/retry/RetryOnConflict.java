@@ -0,0 +1,18 @@
+package com.bank.account.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Повторяет всю транзакцию метода при конфликте параллельного изменения (версия, блокировка,
+ * взаимоблокировка). Бюджет попыток — bank.retry.operations.[value] или bank.retry.defaults.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    /** Имя операции для бюджета попыток и тега метрик. */
+    String value();
+}
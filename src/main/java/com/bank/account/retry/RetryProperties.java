@@ -0,0 +1,27 @@
+package com.bank.account.retry;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "bank.retry")
+public record RetryProperties(
+        @DefaultValue Policy defaults,
+        // Ключ — имя операции из @RetryOnConflict, незаданные поля берут значения по умолчанию Policy
+        @DefaultValue Map<String, Policy> operations
+) {
+
+    public Policy policy(String operation) {
+        return operations.getOrDefault(operation, defaults);
+    }
+
+    public record Policy(
+            // Всего попыток, включая первую
+            @DefaultValue("4") int maxAttempts,
+            @DefaultValue("10ms") Duration initialBackoff,
+            @DefaultValue("200ms") Duration maxBackoff,
+            @DefaultValue("2.0") double multiplier
+    ) {}
+}
@@ -0,0 +1,13 @@
+package com.bank.account.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.security.api-credentials")
+public record ApiCredentialsProperties(
+        // Столько же живет пользователь в кэше userDetails: блокировка учетки доходит до API за то же время
+        @DefaultValue("60s") Duration ttl,
+        @DefaultValue("10000") int maxSize
+) {}
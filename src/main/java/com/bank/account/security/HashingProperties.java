@@ -0,0 +1,14 @@
+package com.bank.account.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.security.hashing")
+public record HashingProperties(
+        // 0 — по числу ядер
+        @DefaultValue("0") int threads,
+        @DefaultValue("64") int queueCapacity,
+        @DefaultValue("2s") Duration timeout
+) {}
@@ -1,15 +1,22 @@
 package com.bank.account.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 
@@ -18,27 +25,65 @@ import org.springframework.security.web.SecurityFilterChain;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    public static final String USER_DETAILS_CACHE = "userDetails";
+
     private final CustomUserDetailsService userDetailsService;
+    private final HashingProperties hashingProperties;
+    private final CacheManager cacheManager;
+    private final ApiCredentialsProperties apiCredentialsProperties;
 
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), hashingProperties);
+    }
 
+    // Повторный логин в пределах TTL не ходит в БД за пользователем
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public UserCache userCache() {
+        return new SpringCacheBasedUserCache(cacheManager.getCache(USER_DETAILS_CACHE));
     }
 
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider auth = new DaoAuthenticationProvider(userDetailsService);
         auth.setPasswordEncoder(passwordEncoder());
+        auth.setUserCache(userCache());
         return auth;
     }
 
+    @Bean
+    public VerifiedCredentialsCache verifiedCredentialsCache() {
+        return new VerifiedCredentialsCache(apiCredentialsProperties);
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception{
         return authConfig.getAuthenticationManager();
     }
 
+    // Машинные клиенты API и сборщик метрик: только Basic, без сессии и CSRF-токена.
+    // Сессии нет, поэтому BCrypt проходит только первый запрос, дальше пароль сверяется с кэшем
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http) {
+        // ProviderManager стирает пароль из результата, в кэш он не попадает
+        AuthenticationManager bcrypt = new ProviderManager(authenticationProvider());
+        http
+                .securityMatcher("/api/**", "/actuator/**")
+                .authenticationManager(attempt -> verifiedCredentialsCache().authenticate(attempt, bcrypt))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/api/v1/admin/**", "/actuator/**").hasRole("ADMIN")
+                        .anyRequest().authenticated()
+                )
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(AbstractHttpConfigurer::disable);
+        return http.build();
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) {
         http
                 .authorizeHttpRequests(auth -> auth
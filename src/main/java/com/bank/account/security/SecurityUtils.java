@@ -10,14 +10,23 @@ import com.bank.account.exception.AuthenticationException;
 public class SecurityUtils {
 
     public String getCurrentUserId() {
+        Object principal = currentAuthentication().getPrincipal();
+
+        return ((UserDetailsImpl) principal).getId();
+    }
+
+    // Имя, под которым выполнен вход: email или номер телефона
+    public String getCurrentLogin() {
+        return currentAuthentication().getName();
+    }
+
+    private Authentication currentAuthentication() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new AuthenticationException("Пользователь не авторизован");
         }
 
-        Object principal = authentication.getPrincipal();
-
-        return ((UserDetailsImpl) principal).getId();
+        return authentication;
     }
 }
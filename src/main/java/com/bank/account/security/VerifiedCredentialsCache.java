@@ -0,0 +1,81 @@
+package com.bank.account.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Проверенные учетные данные HTTP Basic. Клиент API присылает пароль в каждом запросе,
+ * и без кэша каждый запрос занимал бы пул хэширования на время BCrypt наравне с логинами.
+ * Хранится не пароль, а его HMAC со случайным ключом процесса; другой пароль для того же логина
+ * проверяется заново. Запись живет bank.security.api-credentials.ttl и удаляется при смене пароля.
+ */
+public class VerifiedCredentialsCache {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final Cache<String, Verified> verified;
+
+    public VerifiedCredentialsCache(ApiCredentialsProperties properties) {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .build();
+    }
+
+    /**
+     * Возвращает запомненный результат, если логин и пароль совпадают с проверенными,
+     * иначе проверяет их через delegate и запоминает успех.
+     */
+    public Authentication authenticate(Authentication attempt, AuthenticationManager delegate) {
+        String username = attempt.getName();
+        Object credentials = attempt.getCredentials();
+        if (username == null || credentials == null) {
+            return delegate.authenticate(attempt);
+        }
+
+        byte[] digest = digest(username, credentials.toString());
+        Verified entry = verified.getIfPresent(username);
+        if (entry != null && MessageDigest.isEqual(entry.digest(), digest)) {
+            return entry.authentication();
+        }
+
+        Authentication result = delegate.authenticate(attempt);
+        if (result != null && result.isAuthenticated()) {
+            verified.put(username, new Verified(digest, result));
+        }
+        return result;
+    }
+
+    // Ключ — введенный логин, как и в кэше userDetails
+    public void evict(String username) {
+        verified.invalidate(username);
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " недоступен", e);
+        }
+    }
+
+    private record Verified(byte[] digest, Authentication authentication) {}
+}
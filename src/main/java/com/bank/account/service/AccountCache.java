@@ -0,0 +1,54 @@
+package com.bank.account.service;
+
+import com.bank.account.dto.AccountResponse;
+import com.bank.account.dto.TransactionResponse;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Кэш сводок по счетам для личного кабинета. Размер и TTL задаются в spring.cache.caffeine.spec,
+ * сброс после проводок выполняется только после коммита.
+ */
+@Component
+public class AccountCache {
+
+    public static final String ACCOUNTS = "accounts";
+    public static final String USER_ACCOUNTS = "userAccounts";
+    public static final String RECENT_TRANSACTIONS = "recentTransactions";
+
+    private final Cache accounts;
+    private final Cache userAccounts;
+    private final Cache recentTransactions;
+
+    public AccountCache(CacheManager cacheManager) {
+        this.accounts = cacheManager.getCache(ACCOUNTS);
+        this.userAccounts = cacheManager.getCache(USER_ACCOUNTS);
+        this.recentTransactions = cacheManager.getCache(RECENT_TRANSACTIONS);
+    }
+
+    public AccountResponse getAccount(String accountNumber, Supplier<AccountResponse> loader) {
+        return accounts.get(accountNumber, loader::get);
+    }
+
+    public List<AccountResponse> getUserAccounts(String userId, Supplier<List<AccountResponse>> loader) {
+        return userAccounts.get(userId, loader::get);
+    }
+
+    public List<TransactionResponse> getRecentTransactions(String userId, Supplier<List<TransactionResponse>> loader) {
+        return recentTransactions.get(userId, loader::get);
+    }
+
+    public void evict(String accountNumber, String userId) {
+        accounts.evict(accountNumber);
+        evictUser(userId);
+    }
+
+    public void evictUser(String userId) {
+        userAccounts.evict(userId);
+        recentTransactions.evict(userId);
+    }
+}
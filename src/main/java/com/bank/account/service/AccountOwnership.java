@@ -0,0 +1,44 @@
+package com.bank.account.service;
+
+import com.bank.account.exception.AccountNotFoundException;
+import com.bank.account.model.Account;
+import com.bank.account.repository.AccountRepository;
+import com.bank.account.security.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Доступ к счету только владельцу. Чужой счет неотличим от несуществующего (404), чтобы по ответам
+ * нельзя было перебирать номера. Пакетные задания вызывают сервисы без пользователя и сюда не ходят.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountOwnership {
+
+    private final AccountRepository accountRepository;
+    private final SecurityUtils secUtils;
+
+    public void requireOwned(String accountNumber) {
+        if (!accountRepository.existsByAccountNumberAndUserId(accountNumber, secUtils.getCurrentUserId())) {
+            throw new AccountNotFoundException(accountNumber);
+        }
+    }
+
+    // Владелец берется из внешнего ключа: прокси пользователя не загружается
+    public void requireOwned(Account account) {
+        if (!account.getUser().getId().equals(secUtils.getCurrentUserId())) {
+            throw new AccountNotFoundException(account.getAccountNumber());
+        }
+    }
+
+    public Set<String> ownedAmong(Collection<String> accountNumbers) {
+        if (accountNumbers.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(accountRepository.findOwnedAccountNumbers(secUtils.getCurrentUserId(), accountNumbers));
+    }
+}
@@ -2,17 +2,33 @@ package com.bank.account.service;
 
 import com.bank.account.dto.*;
 import com.bank.account.exception.AccountNotFoundException;
+import com.bank.account.exception.BaseException;
 import com.bank.account.exception.InsufficientFundsException;
+import com.bank.account.ledger.LedgerEngine;
+import com.bank.account.ledger.LedgerPosting;
+import com.bank.account.metrics.Measured;
 import com.bank.account.model.Account;
+import com.bank.account.model.JournalEntry;
 import com.bank.account.model.User;
+import com.bank.account.repository.AccountBalance;
 import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.BalanceRepository;
+import com.bank.account.retry.RetryOnConflict;
+import com.bank.account.service.numbering.AccountNumberGenerator;
+import com.bank.account.service.slots.SplitBalanceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -21,12 +37,19 @@ import java.util.stream.Collectors;
 public class AccountService {
 
     private final AccountRepository accountRepository;
+    private final BalanceRepository balanceRepository;
     private final TransactionService transactionService;
     private final UserService userService;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final AccountCache accountCache;
+    private final AccountNumberGenerator accountNumberGenerator;
+    private final SplitBalanceService splitBalanceService;
+    private final AccountOwnership accountOwnership;
 
+    @Measured("account.create")
     @Transactional
     public TransactionResponse createAccount(CreateAccountRequest request) {
-        String accountNumber = generateAccountNumber();
+        String accountNumber = accountNumberGenerator.next();
 
         User user = userService.findUserByIdentifier(request.identifier());
 
@@ -45,97 +68,281 @@ public class AccountService {
                 "Первоначальный депозит"
         );
 
+        accountCache.evictUser(user.getId());
+
         log.info("Счет создан: {}", accountNumber);
         return response;
     }
 
-    @Transactional(readOnly = true)
+    // Без @Transactional: проверка владельца — один запрос по уникальному индексу, сам счет берется из кэша
     public AccountResponse getAccount(String accountNumber) {
-        Account account = findAccountByNumber(accountNumber);
-        return convertToAccountResponse(account);
+        accountNumberGenerator.requireValid(accountNumber);
+        accountOwnership.requireOwned(accountNumber);
+        AccountResponse account = accountCache.getAccount(
+                accountNumber,
+                () -> convertToAccountResponse(findAccountByNumber(accountNumber))
+        );
+        return withCurrentBalance(account);
     }
 
-    @Transactional(readOnly = true)
     public List<AccountResponse> getAllAccounts(String userId) {
-        return accountRepository.findByUserId(userId)
-                .stream()
-                .map(this::convertToAccountResponse)
+        List<AccountResponse> accounts = accountCache.getUserAccounts(
+                userId,
+                () -> accountRepository.findByUserId(userId)
+                        .stream()
+                        .map(this::convertToAccountResponse)
+                        .toList()
+        );
+        return accounts.stream()
+                .map(this::withCurrentBalance)
                 .collect(Collectors.toList());
     }
 
+    @Measured("account.deposit")
+    @RetryOnConflict("account.deposit")
     @Transactional
     public TransactionResponse deposit(String accountNumber, TransactionRequest request) {
-        Account account = findAccountByNumber(accountNumber);
+        accountNumberGenerator.requireValid(accountNumber);
+        accountOwnership.requireOwned(accountNumber);
+
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        if (engine != null) {
+            LedgerPosting posting = engine.deposit(
+                    accountNumber,
+                    request.getAmount(),
+                    "Пополнение счета " + accountNumber + " на сумму " + request.getAmount()
+            );
+            return transactionService.convertToTransactionResponse(posting);
+        }
 
-        BigDecimal newBalance = account.getBalance().add(request.getAmount());
-        account.setBalance(newBalance);
-        accountRepository.save(account);
+        AccountBalance balance = credit(accountNumber, request.getAmount());
 
-        TransactionResponse response = transactionService.deposit(
-                account,
+        return transactionService.deposit(
+                balance,
                 request.getAmount(),
-                "Пополнение счета " + account.getAccountNumber() + " на сумму " + request.getAmount()
+                "Пополнение счета " + accountNumber + " на сумму " + request.getAmount()
         );
-
-        return response;
     }
 
+    @Measured("account.withdraw")
+    @RetryOnConflict("account.withdraw")
     @Transactional
     public TransactionResponse withdraw(String accountNumber, TransactionRequest request) {
-        Account account = findAccountByNumber(accountNumber);
-
-        if (account.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientFundsException(accountNumber, account.getBalance(),request.getAmount());
+        accountNumberGenerator.requireValid(accountNumber);
+        accountOwnership.requireOwned(accountNumber);
+
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        if (engine != null) {
+            LedgerPosting posting = engine.withdraw(
+                    accountNumber,
+                    request.getAmount(),
+                    "Убыль счета " + accountNumber + " на сумму " + request.getAmount()
+            );
+            return transactionService.convertToTransactionResponse(posting);
         }
 
-        BigDecimal newBalance = account.getBalance().subtract(request.getAmount());
-        account.setBalance(newBalance);
-
-        accountRepository.save(account);
+        AccountBalance balance = debit(accountNumber, request.getAmount());
 
-        TransactionResponse response = transactionService.withdraw(
-                account,
+        return transactionService.withdraw(
+                balance,
                 request.getAmount(),
-                "Убыль счета " + account.getAccountNumber() + " на сумму " + request.getAmount()
+                "Убыль счета " + accountNumber + " на сумму " + request.getAmount()
         );
+    }
+
+    @Measured("account.transfer")
+    @RetryOnConflict("account.transfer")
+    @Transactional
+    public TransferResponse transfer(TransferRequest request) {
+        accountNumberGenerator.requireValid(request.getFromAccountNumber());
+        accountNumberGenerator.requireValid(request.getToAccountNumber());
+        // Списывать можно только со своего счета, зачислять — на любой
+        accountOwnership.requireOwned(request.getFromAccountNumber());
+
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        if (engine != null) {
+            return ledgerTransfer(engine, request);
+        }
+
+        String fromNumber = request.getFromAccountNumber();
+        String toNumber = request.getToAccountNumber();
+        BigDecimal amount = request.getAmount();
+
+        // Строки счетов блокируются в порядке номера, поэтому встречные переводы не взаимоблокируются.
+        // Если зачисление прошло первым, а списание не удалось, откат транзакции вернет зачисление.
+        AccountBalance fromBalance;
+        AccountBalance toBalance;
+        if (fromNumber.compareTo(toNumber) <= 0) {
+            fromBalance = debit(fromNumber, amount);
+            toBalance = credit(toNumber, amount);
+        } else {
+            toBalance = credit(toNumber, amount);
+            fromBalance = debit(fromNumber, amount);
+        }
+
+        TransferResponse response = transactionService.transfer(fromBalance, toBalance, amount);
+
+        log.info("Перевод выполнен: {} -> {}, сумма: {}", fromNumber, toNumber, amount);
 
         return response;
     }
 
+    @Measured("account.batch-transfer")
+    @RetryOnConflict("account.batch-transfer")
     @Transactional
-    public TransferResponse transfer(TransferRequest request) {
-        Account fromAccount = findAccountByNumber(request.getFromAccountNumber());
-        Account toAccount = findAccountByNumber(request.getToAccountNumber());
+    public BatchTransferResponse batchTransfer(List<TransferRequest> legs) {
+        // Один запрос на весь пакет: нога с чужого счета отклоняется как с несуществующего
+        Set<String> owned = accountOwnership.ownedAmong(legs.stream()
+                .filter(this::isValidLeg)
+                .map(TransferRequest::getFromAccountNumber)
+                .collect(Collectors.toSet()));
+
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        if (engine != null) {
+            return ledgerBatchTransfer(engine, legs, owned);
+        }
 
-        if (fromAccount.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientFundsException(fromAccount.getAccountNumber(), fromAccount.getBalance(), request.getAmount());
+        Set<String> numbers = new HashSet<>();
+        for (TransferRequest leg : legs) {
+            if (isValidLeg(leg) && owned.contains(leg.getFromAccountNumber())) {
+                numbers.add(leg.getFromAccountNumber());
+                numbers.add(leg.getToAccountNumber());
+            }
         }
 
-        // Снимаем со счёта отправителя
-        BigDecimal fromNewBalance = fromAccount.getBalance().subtract(request.getAmount());
-        fromAccount.setBalance(fromNewBalance);
-        accountRepository.save(fromAccount);
+        // Счета блокируются одним запросом в порядке номера, поэтому встречные пачки не взаимоблокируются
+        Map<String, Account> accounts = accountRepository.findAllByAccountNumberForUpdate(numbers)
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        // Пакет работает с Account.balance: слоты разделенных счетов сводятся в уже заблокированную строку
+        accounts.values().forEach(splitBalanceService::consolidate);
+
+        List<TransferLegResult> results = new ArrayList<>(legs.size());
+        List<JournalEntry> postings = new ArrayList<>(legs.size());
+
+        for (int i = 0; i < legs.size(); i++) {
+            TransferRequest leg = legs.get(i);
+            Account fromAccount = accounts.get(leg.getFromAccountNumber());
+            Account toAccount = accounts.get(leg.getToAccountNumber());
+
+            String error = validateLeg(leg, fromAccount, toAccount, owned);
+            if (error != null) {
+                results.add(TransferLegResult.rejected(i, leg, error));
+                continue;
+            }
+
+            fromAccount.setBalance(fromAccount.getBalance().subtract(leg.getAmount()));
+            toAccount.setBalance(toAccount.getBalance().add(leg.getAmount()));
+            accountCache.evict(fromAccount.getAccountNumber(), fromAccount.getUser().getId());
+            accountCache.evict(toAccount.getAccountNumber(), toAccount.getUser().getId());
+
+            postings.add(transactionService.buildTransfer(fromAccount, toAccount, leg.getAmount()));
+            results.add(TransferLegResult.completed(i, leg, fromAccount.getBalance()));
+        }
 
-        TransferResponse response = transactionService.transferFrom(
-                fromAccount,
-                toAccount.getAccountNumber(),
-                request.getAmount()
-        );
+        // Счета сохраняются при коммите через dirty checking, вставки и обновления уходят JDBC-пачками
+        transactionService.saveAll(postings);
 
-        // Добавляем на счёт получателя
-        BigDecimal toNewBalance = toAccount.getBalance().add(request.getAmount());
-        toAccount.setBalance(toNewBalance);
-        accountRepository.save(toAccount);
+        BatchTransferResponse response = BatchTransferResponse.of(results);
+        log.info("Пакетный перевод выполнен: проведено {}, отклонено {}", response.completed(), response.rejected());
+        return response;
+    }
+
+    private BatchTransferResponse ledgerBatchTransfer(LedgerEngine engine, List<TransferRequest> legs, Set<String> owned) {
+        List<TransferLegResult> results = new ArrayList<>(legs.size());
+
+        for (int i = 0; i < legs.size(); i++) {
+            TransferRequest leg = legs.get(i);
+            if (!isValidLeg(leg)) {
+                results.add(TransferLegResult.rejected(i, leg, "VALIDATION_ERROR"));
+                continue;
+            }
+            if (!owned.contains(leg.getFromAccountNumber())) {
+                results.add(TransferLegResult.rejected(i, leg, "ACC_NOT_FOUND"));
+                continue;
+            }
+            if (leg.getFromAccountNumber().equals(leg.getToAccountNumber())) {
+                results.add(TransferLegResult.rejected(i, leg, "SAME_ACCOUNT"));
+                continue;
+            }
+            try {
+                List<LedgerPosting> postings = engine.transfer(
+                        leg.getFromAccountNumber(),
+                        leg.getToAccountNumber(),
+                        leg.getAmount()
+                );
+                results.add(TransferLegResult.completed(i, leg, postings.getFirst().balanceAfter()));
+            } catch (BaseException e) {
+                results.add(TransferLegResult.rejected(i, leg, e.getErrorCode()));
+            }
+        }
+
+        return BatchTransferResponse.of(results);
+    }
+
+    private boolean isValidLeg(TransferRequest leg) {
+        return accountNumberGenerator.isValid(leg.getFromAccountNumber())
+                && accountNumberGenerator.isValid(leg.getToAccountNumber());
+    }
 
-        transactionService.transferTo(toAccount, fromAccount.getAccountNumber(), request.getAmount());
+    private String validateLeg(TransferRequest leg, Account fromAccount, Account toAccount, Set<String> owned) {
+        if (!isValidLeg(leg)) {
+            return "VALIDATION_ERROR";
+        }
+        if (fromAccount == null || toAccount == null || !owned.contains(leg.getFromAccountNumber())) {
+            return "ACC_NOT_FOUND";
+        }
+        if (fromAccount == toAccount) {
+            return "SAME_ACCOUNT";
+        }
+        if (fromAccount.getBalance().compareTo(leg.getAmount()) < 0) {
+            return "INSUFFICIENT_FUNDS";
+        }
+        return null;
+    }
+
+    private TransferResponse ledgerTransfer(LedgerEngine engine, TransferRequest request) {
+        List<LedgerPosting> postings = engine.transfer(
+                request.getFromAccountNumber(),
+                request.getToAccountNumber(),
+                request.getAmount()
+        );
+        LedgerPosting out = postings.getFirst();
 
         log.info("Перевод выполнен: {} -> {}, сумма: {}",
-                fromAccount.getAccountNumber(),
-                toAccount.getAccountNumber(),
+                request.getFromAccountNumber(),
+                request.getToAccountNumber(),
                 request.getAmount()
         );
 
-        return response;
+        return new TransferResponse(
+                out.accountNumber(),
+                request.getToAccountNumber(),
+                out.amount(),
+                out.balanceAfter(),
+                out.timestamp()
+        );
+    }
+
+    private AccountBalance credit(String accountNumber, BigDecimal amount) {
+        AccountBalance balance = splitBalanceService.credit(accountNumber, amount)
+                .or(() -> balanceRepository.credit(accountNumber, amount))
+                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+        accountCache.evict(balance.accountNumber(), balance.userId());
+        return balance;
+    }
+
+    private AccountBalance debit(String accountNumber, BigDecimal amount) {
+        AccountBalance balance = splitBalanceService.debit(accountNumber, amount)
+                .or(() -> balanceRepository.debit(accountNumber, amount))
+                .orElseThrow(() -> {
+                    // Ноль строк: либо счета нет, либо не хватило средств — различаем только на этой ветке
+                    BigDecimal current = balanceRepository.findBalance(accountNumber)
+                            .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+                    return new InsufficientFundsException(accountNumber, current, amount);
+                });
+        accountCache.evict(balance.accountNumber(), balance.userId());
+        return balance;
     }
 
     private Account findAccountByNumber(String accountNumber) {
@@ -143,15 +350,22 @@ public class AccountService {
                     .orElseThrow(() -> new AccountNotFoundException(accountNumber));
     }
 
-    private String generateAccountNumber() {
-        return "ACC" + System.currentTimeMillis() + (int)(Math.random() * 1000);
-    }
-
     private AccountResponse convertToAccountResponse(Account account) {
         return new AccountResponse(
                 account.getAccountNumber(),
-                account.getBalance(),
+                splitBalanceService.totalBalance(account),
                 account.getType()
         );
     }
+
+    // При включенном леджере актуальный баланс хранится в памяти, а в БД и кэше может отставать
+    private AccountResponse withCurrentBalance(AccountResponse account) {
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        if (engine == null) {
+            return account;
+        }
+        return engine.balanceOf(account.accountNumber())
+                .map(balance -> new AccountResponse(account.accountNumber(), balance, account.type()))
+                .orElse(account);
+    }
 }
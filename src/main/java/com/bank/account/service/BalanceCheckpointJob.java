@@ -0,0 +1,58 @@
+package com.bank.account.service;
+
+import com.bank.account.ledger.LedgerWriter;
+import com.bank.account.repository.BalanceCheckpointRepository;
+import com.bank.account.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Догоняет контрольные точки до последнего закрытого дня: после простоя строятся все пропущенные дни.
+ * День считается закрытым через {@link BalanceCheckpointProperties#lag()} после его конца — построенная
+ * точка больше не пересчитывается, поэтому опоздавшие проводки (долгие транзакции, очередь леджера)
+ * должны успеть записаться до этого.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BalanceCheckpointJob {
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final TransactionRepository transactionRepository;
+    private final BalanceCheckpointBuilder builder;
+    private final BalanceCheckpointProperties properties;
+    private final ObjectProvider<LedgerWriter> ledgerWriter;
+
+    @Scheduled(cron = "${bank.balance-checkpoints.cron:0 5 * * * *}")
+    public void catchUp() {
+        LedgerWriter writer = ledgerWriter.getIfAvailable();
+        if (writer != null && writer.failing()) {
+            // Проводки копятся в очереди леджера и попадут в БД позже: закрывать дни рано
+            log.warn("Контрольные точки отложены: запись леджера в БД не проходит, в очереди {}", writer.pending());
+            return;
+        }
+
+        LocalDate watermark = checkpointRepository.findWatermark();
+        LocalDate day;
+        if (watermark != null) {
+            day = watermark.plusDays(1);
+        } else {
+            LocalDateTime earliest = transactionRepository.findEarliestTimestamp();
+            if (earliest == null) {
+                return;
+            }
+            day = earliest.toLocalDate();
+        }
+
+        LocalDate lastClosed = LocalDateTime.now().minus(properties.lag()).toLocalDate().minusDays(1);
+        for (; !day.isAfter(lastClosed); day = day.plusDays(1)) {
+            builder.build(day);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.bank.account.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.balance-checkpoints")
+public record BalanceCheckpointProperties(
+        // День закрывается не раньше, чем через lag после полуночи: точка не перестраивается,
+        // и проводки дня, зафиксированные позже, в нее бы не попали
+        @DefaultValue("1h") Duration lag
+) {}
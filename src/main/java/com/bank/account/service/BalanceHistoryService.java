@@ -0,0 +1,118 @@
+package com.bank.account.service;
+
+import com.bank.account.dto.BalancePeriodSummary;
+import com.bank.account.exception.AccountNotFoundException;
+import com.bank.account.exception.ValidationException;
+import com.bank.account.model.Account;
+import com.bank.account.model.BalanceCheckpoint;
+import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.BalanceCheckpointRepository;
+import com.bank.account.repository.PeriodTotals;
+import com.bank.account.repository.TransactionRepository;
+import com.bank.account.service.numbering.AccountNumberGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Исторические балансы и обороты за период. Дни до последней контрольной точки берутся из
+ * balance_checkpoints, после нее — из проводок, то есть просматривается не больше суток-двух истории.
+ */
+@Service
+@RequiredArgsConstructor
+public class BalanceHistoryService {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final AccountNumberGenerator accountNumberGenerator;
+    private final AccountOwnership accountOwnership;
+
+    /** Баланс на конец дня. */
+    @Transactional(readOnly = true)
+    public BigDecimal balanceOn(String accountNumber, LocalDate date) {
+        return closingBalance(account(accountNumber), date, checkpointRepository.findWatermark());
+    }
+
+    @Transactional(readOnly = true)
+    public BalancePeriodSummary summary(String accountNumber, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ValidationException("Начало периода позже конца", List.of("from", "to"));
+        }
+
+        Account account = account(accountNumber);
+        LocalDate watermark = checkpointRepository.findWatermark();
+
+        PeriodTotals totals = PeriodTotals.EMPTY;
+        // Полные дни, за которые точки уже построены
+        if (watermark != null && !from.isAfter(watermark)) {
+            totals = totals.plus(checkpointRepository.sumBetween(account.getId(), from, min(to, watermark)));
+        }
+        // Остаток периода после последней точки — по проводкам
+        if (watermark == null || to.isAfter(watermark)) {
+            LocalDate deltaFrom = watermark == null || from.isAfter(watermark) ? from : watermark.plusDays(1);
+            totals = totals.plus(transactionRepository.sumBetween(
+                    account, deltaFrom.atStartOfDay(), to.plusDays(1).atStartOfDay()));
+        }
+
+        return new BalancePeriodSummary(
+                accountNumber,
+                from,
+                to,
+                closingBalance(account, from.minusDays(1), watermark),
+                totals.credits(),
+                totals.debits(),
+                closingBalance(account, to, watermark),
+                totals.transactionCount()
+        );
+    }
+
+    /**
+     * Баланс на конец дня для уже загруженного счета. Пакетные задания читают отметку
+     * {@link BalanceCheckpointRepository#findWatermark()} один раз на прогон и передают ее сюда.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal closingBalance(Account account, LocalDate date, LocalDate watermark) {
+        Optional<BalanceCheckpoint> checkpoint = checkpointRepository
+                .findFirstByAccountIdAndBusinessDateLessThanEqualOrderByBusinessDateDesc(account.getId(), date);
+
+        if (checkpoint.isPresent() && checkpoint.get().getBusinessDate().equals(date)) {
+            return checkpoint.get().getClosingBalance();
+        }
+
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        BigDecimal base = checkpoint.map(BalanceCheckpoint::getClosingBalance).orElse(BigDecimal.ZERO);
+
+        // Нижняя граница поиска: день после точки счета или, если точек у счета нет, после общей отметки
+        LocalDate after = checkpoint.map(BalanceCheckpoint::getBusinessDate).orElse(watermark);
+        if (after != null && !after.isBefore(date)) {
+            return base;
+        }
+
+        // Сумма оборотов, а не balance_after последней проводки: у разделенного счета это лишь снимок
+        PeriodTotals totals = after != null
+                ? transactionRepository.sumBetween(account, after.plusDays(1).atStartOfDay(), end)
+                : transactionRepository.sumBefore(account, end);
+
+        return base.add(totals.credits()).subtract(totals.debits());
+    }
+
+    // Запросы пользователя; пакетные задания передают счет в closingBalance напрямую
+    private Account account(String accountNumber) {
+        accountNumberGenerator.requireValid(accountNumber);
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+        accountOwnership.requireOwned(account);
+        return account;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
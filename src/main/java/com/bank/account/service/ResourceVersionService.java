@@ -0,0 +1,56 @@
+package com.bank.account.service;
+
+import com.bank.account.ledger.LedgerEngine;
+import com.bank.account.repository.VersionStamp;
+import com.bank.account.repository.VersionStampRepository;
+import com.bank.account.security.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * ETag для условных GET по счету и по всем счетам пользователя. null — условный ответ невозможен:
+ * счета нет или он чужой (обработчик вернет 404 сам) или включен леджер, чьи балансы в памяти опережают БД.
+ * Тег зависит от пользователя и имени входа: страница показывает email или телефон, под которым вошли.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResourceVersionService {
+
+    private final VersionStampRepository versionStampRepository;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final SecurityUtils secUtils;
+
+    public String accountTag(String accountNumber) {
+        if (ledgerEngine.getIfAvailable() != null) {
+            return null;
+        }
+        String userId = secUtils.getCurrentUserId();
+        return versionStampRepository.forAccount(accountNumber, userId)
+                .map(stamp -> stamp.etag(principal(userId)))
+                .orElse(null);
+    }
+
+    public String userTag(String userId) {
+        if (ledgerEngine.getIfAvailable() != null) {
+            return null;
+        }
+        return versionStampRepository.forUser(userId).etag(principal(userId));
+    }
+
+    // Первые 8 байт SHA-256: в теге не видны ни id, ни логин
+    private String principal(String userId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((userId + '\n' + secUtils.getCurrentLogin()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
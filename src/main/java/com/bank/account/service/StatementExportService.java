@@ -0,0 +1,108 @@
+package com.bank.account.service;
+
+import com.bank.account.dto.StatementFormat;
+import com.bank.account.dto.StatementRow;
+import com.bank.account.exception.AccountNotFoundException;
+import com.bank.account.model.Account;
+import com.bank.account.model.Transaction;
+import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatementExportService {
+
+    private static final String CSV_HEADER = "id,account_number,timestamp,type,amount,balance_after,description\n";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long export(String accountNumber, StatementFormat format, OutputStream out) throws IOException {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == StatementFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+
+        long count = 0;
+        try (Stream<Transaction> rows = transactionRepository.streamByAccount(account)) {
+            Iterator<Transaction> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                StatementRow row = toRow(accountNumber, transaction);
+
+                if (format == StatementFormat.CSV) {
+                    writeCsv(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+
+                // Отцепляем строку от контекста, чтобы память не росла с длиной истории
+                entityManager.detach(transaction);
+                count++;
+            }
+        }
+
+        writer.flush();
+        log.info("Выписка по счету {} выгружена: {} операций, формат {}", accountNumber, count, format);
+        return count;
+    }
+
+    private StatementRow toRow(String accountNumber, Transaction transaction) {
+        return new StatementRow(
+                transaction.getId().toString(),
+                accountNumber,
+                transaction.getTimestamp().toString(),
+                transaction.getType(),
+                transaction.getAmount(),
+                transaction.getBalanceAfter(),
+                transaction.getDescription()
+        );
+    }
+
+    private void writeCsv(Writer writer, StatementRow row) throws IOException {
+        writer.write(row.id());
+        writer.write(',');
+        writer.write(row.accountNumber());
+        writer.write(',');
+        writer.write(row.timestamp());
+        writer.write(',');
+        writer.write(row.type().name());
+        writer.write(',');
+        writer.write(row.amount().toPlainString());
+        writer.write(',');
+        writer.write(row.balanceAfter() != null ? row.balanceAfter().toPlainString() : "");
+        writer.write(',');
+        writer.write(escapeCsv(row.description()));
+        writer.write('\n');
+    }
+
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,24 +1,41 @@
 package com.bank.account.service;
 
+import com.bank.account.dto.TransactionFilter;
+import com.bank.account.dto.TransactionItem;
+import com.bank.account.dto.TransactionItemPage;
+import com.bank.account.dto.TransactionPage;
 import com.bank.account.dto.TransactionResponse;
 import com.bank.account.dto.TransactionRequest;
 import com.bank.account.dto.TransferResponse;
+import com.bank.account.exception.AccountNotFoundException;
+import com.bank.account.ledger.LedgerPosting;
+import com.bank.account.metrics.Measured;
 import com.bank.account.model.Account;
+import com.bank.account.model.JournalEntry;
 import com.bank.account.model.Transaction;
 import com.bank.account.model.TransactionType;
+import com.bank.account.outbox.OutboxWriter;
+import com.bank.account.repository.AccountBalance;
 import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.JournalEntryRepository;
 import com.bank.account.repository.TransactionRepository;
+import com.bank.account.service.numbering.AccountNumberGenerator;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,10 +43,26 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TransactionService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    // DateTimeFormatter неизменяем и потокобезопасен: один экземпляр на все строки вместо нового на каждую
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
+    private static final Sort KEYSET_ORDER = Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id"));
+
     private final TransactionRepository transactionRepository;
 
     private final AccountRepository accountRepository;
 
+    private final JournalEntryRepository journalEntryRepository;
+
+    private final AccountCache accountCache;
+
+    private final AccountNumberGenerator accountNumberGenerator;
+
+    private final AccountOwnership accountOwnership;
+
+    private final OutboxWriter outboxWriter;
+
     public List<TransactionResponse> getAccountTransaction(String acc) {
         return transactionRepository.findByAccountNumber(acc)
                 .stream()
@@ -37,16 +70,47 @@ public class TransactionService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public TransactionPage getAccountTransactions(String accountNumber, TransactionFilter filter) {
+        int size = pageSize(filter.getSize());
+        List<Transaction> rows = historyRows(accountNumber, filter, size);
+
+        boolean hasNext = rows.size() > size;
+        List<Transaction> page = hasNext ? rows.subList(0, size) : rows;
+
+        return new TransactionPage(
+                page.stream().map(this::convertToTransactionResponse).toList(),
+                hasNext ? TransactionCursor.of(page.getLast()).encode() : null
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionItemPage getAccountTransactionItems(String accountNumber, TransactionFilter filter) {
+        int size = pageSize(filter.getSize());
+        List<Transaction> rows = historyRows(accountNumber, filter, size);
+
+        boolean hasNext = rows.size() > size;
+        List<Transaction> page = hasNext ? rows.subList(0, size) : rows;
+
+        return new TransactionItemPage(
+                page.stream().map(TransactionService::convertToTransactionItem).toList(),
+                hasNext ? TransactionCursor.of(page.getLast()).encode() : null
+        );
+    }
+
     public List<TransactionResponse> getLastTransaction(String userId) {
-        Pageable topTen = PageRequest.of(0, 10, Sort.unsorted());
+        return accountCache.getRecentTransactions(userId, () -> {
+            Pageable topTen = PageRequest.of(0, 10, Sort.unsorted());
 
-        List<Transaction> transactions = transactionRepository.findTop10ByUserId(userId, topTen);
+            List<Transaction> transactions = transactionRepository.findTop10ByUserId(userId, topTen);
 
-        return transactions.stream()
-                .map(this::convertToTransactionResponse)
-                .toList();
+            return transactions.stream()
+                    .map(this::convertToTransactionResponse)
+                    .toList();
+        });
     }
 
+    @Measured("transaction.deposit")
     @Transactional
     public TransactionResponse deposit(Account account, BigDecimal amount, String desc) {
         Transaction transaction = Transaction.builder()
@@ -58,64 +122,178 @@ public class TransactionService {
                 .build();
 
         transactionRepository.save(transaction);
+        outboxWriter.append(transaction, account.getAccountNumber());
 
         return convertToTransactionResponse(transaction);
     }
 
+    @Measured("transaction.deposit")
     @Transactional
-    public TransactionResponse withdraw(Account account, BigDecimal amount, String desc) {
-        Transaction transaction = Transaction.builder()
-                .account(account)
-                .amount(amount)
-                .type(TransactionType.WITHDRAWAL)
-                .description(desc)
-                .balanceAfter(account.getBalance())
-                .build();
-
-        transactionRepository.save(transaction);
+    public TransactionResponse deposit(AccountBalance balance, BigDecimal amount, String desc) {
+        Transaction transaction = record(balance, TransactionType.DEPOSIT, amount, desc);
+        return convertToTransactionResponse(balance.accountNumber(), transaction);
+    }
 
-        return convertToTransactionResponse(transaction);
+    @Measured("transaction.withdraw")
+    @Transactional
+    public TransactionResponse withdraw(AccountBalance balance, BigDecimal amount, String desc) {
+        Transaction transaction = record(balance, TransactionType.WITHDRAWAL, amount, desc);
+        return convertToTransactionResponse(balance.accountNumber(), transaction);
     }
 
+    /**
+     * Перевод одной записью журнала: обе ноги уходят одним пакетом INSERT, события outbox — другим.
+     */
+    @Measured("transaction.transfer")
     @Transactional
-    public TransferResponse transferFrom(Account fromAccount, String toAccountNumber, BigDecimal amount) {
-        Transaction transfer = Transaction.builder()
-                .account(fromAccount)
-                .amount(amount)
-                .type(TransactionType.TRANSFER_OUT)
-                .description("Перевод на счет: " + toAccountNumber)
-                .build();
+    public TransferResponse transfer(AccountBalance fromBalance, AccountBalance toBalance, BigDecimal amount) {
+        JournalEntry entry = JournalEntry.transfer(fromBalance.accountNumber(), toBalance.accountNumber(), amount);
+        Transaction out = entry.debit(accountRepository.getReferenceById(fromBalance.id()), fromBalance.balance());
+        Transaction in = entry.credit(accountRepository.getReferenceById(toBalance.id()), toBalance.balance());
 
-        transactionRepository.save(transfer);
+        journalEntryRepository.save(entry);
+        transactionRepository.saveAll(entry.getLegs());
+        outboxWriter.append(out, fromBalance.accountNumber());
+        outboxWriter.append(in, toBalance.accountNumber());
 
         return new TransferResponse(
-                transfer.getAccount().getAccountNumber(),
-                toAccountNumber,
-                transfer.getAmount(),
-                transfer.getBalanceAfter(),
-                transfer.getTimestamp()
-                );
+                fromBalance.accountNumber(),
+                toBalance.accountNumber(),
+                amount,
+                out.getBalanceAfter(),
+                entry.getTimestamp()
+        );
     }
 
+    // Запись перевода без сохранения: пакетный перевод пишет все записи одним saveAll
+    public JournalEntry buildTransfer(Account fromAccount, Account toAccount, BigDecimal amount) {
+        JournalEntry entry = JournalEntry.transfer(fromAccount.getAccountNumber(), toAccount.getAccountNumber(), amount);
+        entry.debit(fromAccount, fromAccount.getBalance());
+        entry.credit(toAccount, toAccount.getBalance());
+        return entry;
+    }
+
+    @Measured("transaction.save-all")
     @Transactional
-    public void transferTo(Account toAccount, String fromAccountNumber, BigDecimal amount) {
-        Transaction transfer = Transaction.builder()
-                .account(toAccount)
+    public void saveAll(List<JournalEntry> entries) {
+        List<Transaction> transactions = new ArrayList<>(entries.size() * 2);
+        for (JournalEntry entry : entries) {
+            transactions.addAll(entry.getLegs());
+        }
+
+        journalEntryRepository.saveAll(entries);
+        transactionRepository.saveAll(transactions);
+        outboxWriter.appendAll(transactions);
+    }
+
+    public TransactionResponse convertToTransactionResponse(LedgerPosting posting) {
+        return new TransactionResponse(
+                posting.accountNumber(),
+                posting.description(),
+                posting.amount(),
+                posting.type(),
+                TIMESTAMP_FORMAT.format(posting.timestamp()),
+                posting.balanceAfter()
+        );
+    }
+
+    // Счет подставляется ссылкой без загрузки: баланс и номер уже вернул UPDATE ... RETURNING
+    private Transaction record(AccountBalance balance, TransactionType type, BigDecimal amount, String desc) {
+        Transaction transaction = Transaction.builder()
+                .account(accountRepository.getReferenceById(balance.id()))
                 .amount(amount)
-                .type(TransactionType.TRANSFER_IN)
-                .description("Перевод с счета: " + fromAccountNumber)
+                .type(type)
+                .description(desc)
+                .balanceAfter(balance.balance())
                 .build();
 
-        transactionRepository.save(transfer);
+        transactionRepository.save(transaction);
+        outboxWriter.append(transaction, balance.accountNumber());
+        return transaction;
+    }
+
+    // Запрашиваем на строку больше страницы, чтобы понять, есть ли продолжение, без COUNT
+    private List<Transaction> historyRows(String accountNumber, TransactionFilter filter, int size) {
+        accountNumberGenerator.requireValid(accountNumber);
+
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+        accountOwnership.requireOwned(account);
+
+        return transactionRepository.findBy(
+                historySpecification(account, filter),
+                query -> query.sortBy(KEYSET_ORDER).limit(size + 1).all()
+        );
+    }
+
+    private Specification<Transaction> historySpecification(Account account, TransactionFilter filter) {
+        TransactionCursor cursor = filter.getCursor() != null && !filter.getCursor().isBlank()
+                ? TransactionCursor.decode(filter.getCursor())
+                : null;
+
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("account"), account));
+
+            if (filter.getType() != null) {
+                predicates.add(cb.equal(root.get("type"), filter.getType()));
+            }
+            if (filter.getMinAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), filter.getMinAmount()));
+            }
+            if (filter.getMaxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("amount"), filter.getMaxAmount()));
+            }
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("timestamp"), filter.getFrom().atStartOfDay()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("timestamp"), filter.getTo().plusDays(1).atStartOfDay()));
+            }
+            if (cursor != null) {
+                // (timestamp, id) < (cursor.timestamp, cursor.id) при сортировке по убыванию
+                predicates.add(cb.or(
+                        cb.lessThan(root.<LocalDateTime>get("timestamp"), cursor.timestamp()),
+                        cb.and(
+                                cb.equal(root.get("timestamp"), cursor.timestamp()),
+                                cb.lessThan(root.<UUID>get("id"), cursor.id())
+                        )
+                ));
+            }
+
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(requested, MAX_PAGE_SIZE);
     }
 
     private TransactionResponse convertToTransactionResponse(Transaction transaction) {
+        return convertToTransactionResponse(transaction.getAccount().getAccountNumber(), transaction);
+    }
+
+    static TransactionItem convertToTransactionItem(Transaction transaction) {
+        return new TransactionItem(
+                transaction.getId(),
+                transaction.getType(),
+                transaction.getAmount(),
+                transaction.getBalanceAfter(),
+                transaction.getTimestamp(),
+                transaction.getDescription()
+        );
+    }
+
+    static TransactionResponse convertToTransactionResponse(String accountNumber, Transaction transaction) {
         TransactionResponse dto = new TransactionResponse(
-                transaction.getAccount().getAccountNumber(),
+                accountNumber,
                 transaction.getDescription(),
                 transaction.getAmount(),
                 transaction.getType(),
-                (DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")).format(transaction.getTimestamp()),
+                TIMESTAMP_FORMAT.format(transaction.getTimestamp()),
                 transaction.getBalanceAfter()
         );
 
@@ -5,8 +5,10 @@ import com.bank.account.exception.UserNotFoundException;
 import com.bank.account.model.Role;
 import com.bank.account.model.User;
 import com.bank.account.repository.UserRepository;
+import com.bank.account.security.VerifiedCredentialsCache;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -20,6 +22,8 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final VerifiedCredentialsCache verifiedCredentials;
 
     public boolean existsUserByEmail(String email) {
         return userRepository.existsByEmail(email);
@@ -52,6 +56,13 @@ public class UserService {
         User user = userRepository.findByEmail(email).orElseThrow(() -> new UserNotFoundException(email));
         user.setPassword(passwordEncoder.encode(password));
         userRepository.save(user);
+        // Ключ кэша — введенный логин, а войти можно и по почте, и по телефону
+        userCache.removeUserFromCache(user.getEmail());
+        verifiedCredentials.evict(user.getEmail());
+        if (user.getPhoneNumber() != null) {
+            userCache.removeUserFromCache(user.getPhoneNumber());
+            verifiedCredentials.evict(user.getPhoneNumber());
+        }
         log.info("Пароль установлен");
         return true;
     }
@@ -0,0 +1,14 @@
+package com.bank.account.service.idempotency;
+
+import org.springframework.dao.ConcurrencyFailureException;
+
+/**
+ * Тот же ключ параллельно записал другой запрос. Это конфликт параллельного изменения:
+ * повторная попытка найдет сохраненный ответ и вернет его.
+ */
+public class IdempotencyConflictException extends ConcurrencyFailureException {
+
+    public IdempotencyConflictException(String id, Throwable cause) {
+        super("Idempotency key " + id + " is being recorded concurrently", cause);
+    }
+}
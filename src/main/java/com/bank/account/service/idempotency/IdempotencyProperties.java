@@ -0,0 +1,14 @@
+package com.bank.account.service.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("10000") int cacheSize,
+        // Сколько хранится ключ: клиент не повторяет запрос позже этого срока
+        @DefaultValue("24h") Duration retention,
+        @DefaultValue("PT1H") Duration cleanupInterval
+) {}
@@ -0,0 +1,123 @@
+package com.bank.account.service.idempotency;
+
+import com.bank.account.exception.IdempotencyKeyReusedException;
+import com.bank.account.model.IdempotencyRecord;
+import com.bank.account.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Ответы на запросы с ключом идемпотентности. Ключ записывается в idempotency_keys до выполнения
+ * операции и держит блокировку строки до конца транзакции, ответ дописывается после. Без леджера
+ * ключ и проводки фиксируются или откатываются вместе; с леджером проводки пишутся асинхронно,
+ * и ключ лишь гарантирует, что операция выполнится один раз. Перед таблицей стоит ограниченный
+ * кэш Caffeine, он наполняется только после коммита.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+    private final Cache<String, StoredResponse> recent;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            ObjectMapper objectMapper,
+                            IdempotencyProperties properties) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(properties.cacheSize())
+                .expireAfterWrite(properties.retention())
+                .build();
+    }
+
+    /**
+     * Возвращает сохраненный ответ для ключа или выполняет действие и сохраняет его ответ.
+     * Вызывается внутри транзакции проводки; без ключа просто выполняет действие.
+     */
+    public <T> T execute(String operation, String accountNumber, String key, String fingerprint,
+                         Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        String id = operation + ":" + accountNumber + ":" + key;
+
+        Optional<T> stored = find(id, fingerprint, responseType);
+        if (stored.isPresent()) {
+            log.info("Повтор запроса {} с ключом {}: возвращен сохраненный ответ", operation, key);
+            return stored.get();
+        }
+
+        // Ключ резервируется до действия: параллельный дубль ждет на уникальном ключе и после коммита
+        // первого получает конфликт, а не выполняет действие второй раз. С леджером действие двигает
+        // баланс в памяти сразу и откатом транзакции не отменяется, поэтому запись после действия не годится.
+        IdempotencyRecord reservation = IdempotencyRecord.builder()
+                .id(id)
+                .fingerprint(fingerprint)
+                .build();
+        try {
+            repository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            throw new IdempotencyConflictException(id, e);
+        }
+
+        T response = action.get();
+        StoredResponse entry = new StoredResponse(fingerprint, objectMapper.writeValueAsString(response));
+        reservation.setResponse(entry.json());
+        repository.saveAndFlush(reservation);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recent.put(id, entry);
+            }
+        });
+
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.idempotency.cleanup-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = repository.deleteCreatedBefore(LocalDateTime.now().minus(properties.retention()));
+        if (removed > 0) {
+            log.info("Удалено устаревших ключей идемпотентности: {}", removed);
+        }
+    }
+
+    private <T> Optional<T> find(String id, String fingerprint, Class<T> responseType) {
+        StoredResponse entry = recent.getIfPresent(id);
+        if (entry == null) {
+            entry = repository.findById(id)
+                    .map(record -> new StoredResponse(record.getFingerprint(), record.getResponse()))
+                    .orElse(null);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            recent.put(id, entry);
+        }
+
+        if (!entry.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException(id.substring(id.lastIndexOf(':') + 1));
+        }
+        return Optional.of(objectMapper.readValue(entry.json(), responseType));
+    }
+
+    private record StoredResponse(String fingerprint, String json) {}
+}
@@ -0,0 +1,57 @@
+package com.bank.account.service.idempotency;
+
+import com.bank.account.dto.TransactionRequest;
+import com.bank.account.dto.TransactionResponse;
+import com.bank.account.dto.TransferRequest;
+import com.bank.account.dto.TransferResponse;
+import com.bank.account.metrics.Measured;
+import com.bank.account.retry.RetryOnConflict;
+import com.bank.account.service.AccountOwnership;
+import com.bank.account.service.AccountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * Проводки с ключом идемпотентности: повтор запроса с тем же ключом возвращает исходный ответ
+ * и не трогает балансы. Транзакция открывается здесь: ключ резервируется в ней до проводки и
+ * освобождается ее откатом. Повтор при конфликте тоже здесь, вложенные вызовы AccountService его не делают.
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotentPostingService {
+
+    private final AccountService accountService;
+    private final IdempotencyStore idempotencyStore;
+    private final AccountOwnership accountOwnership;
+
+    @Measured("account.deposit.idempotent")
+    @RetryOnConflict("account.deposit")
+    @Transactional
+    public TransactionResponse deposit(String accountNumber, TransactionRequest request, String idempotencyKey) {
+        // Сохраненный ответ отдается до вызова AccountService, поэтому владелец проверяется и здесь
+        accountOwnership.requireOwned(accountNumber);
+        return idempotencyStore.execute("deposit", accountNumber, idempotencyKey,
+                amount(request.getAmount()),
+                TransactionResponse.class,
+                () -> accountService.deposit(accountNumber, request));
+    }
+
+    @Measured("account.transfer.idempotent")
+    @RetryOnConflict("account.transfer")
+    @Transactional
+    public TransferResponse transfer(TransferRequest request, String idempotencyKey) {
+        accountOwnership.requireOwned(request.getFromAccountNumber());
+        return idempotencyStore.execute("transfer", request.getFromAccountNumber(), idempotencyKey,
+                request.getToAccountNumber() + "|" + amount(request.getAmount()),
+                TransferResponse.class,
+                () -> accountService.transfer(request));
+    }
+
+    // 100 и 100.00 — одна и та же сумма
+    private static String amount(BigDecimal amount) {
+        return amount == null ? "" : amount.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.bank.account.service.numbering;
+
+import com.bank.account.model.AccountNumberBlock;
+import com.bank.account.repository.AccountNumberBlockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountNumberAllocator {
+
+    static final String ACCOUNT_SEQUENCE = "account";
+
+    private final AccountNumberBlockRepository blockRepository;
+
+    /**
+     * Резервирует диапазон [start, start + size) в отдельной транзакции: строка блокируется
+     * только на время одного UPDATE, а не всей транзакции открытия счета.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long lease(int size) {
+        AccountNumberBlock block = blockRepository.findForUpdate(ACCOUNT_SEQUENCE)
+                .orElseGet(() -> blockRepository.saveAndFlush(new AccountNumberBlock(ACCOUNT_SEQUENCE, 1L)));
+
+        long start = block.getNextValue();
+        block.setNextValue(start + size);
+
+        log.info("Выделен блок номеров счетов [{}, {})", start, start + size);
+        return start;
+    }
+}
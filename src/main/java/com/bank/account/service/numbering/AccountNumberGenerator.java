@@ -0,0 +1,22 @@
+package com.bank.account.service.numbering;
+
+import com.bank.account.exception.ValidationException;
+
+import java.util.List;
+
+/**
+ * Точка расширения для выдачи номеров счетов. Реализация обязана выдавать уникальные номера
+ * на всех узлах и проверять формат без обращения к БД.
+ */
+public interface AccountNumberGenerator {
+
+    String next();
+
+    boolean isValid(String accountNumber);
+
+    default void requireValid(String accountNumber) {
+        if (!isValid(accountNumber)) {
+            throw new ValidationException("Некорректный номер счета", List.of(String.valueOf(accountNumber)));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.bank.account.service.numbering;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "bank.account-number")
+public record AccountNumberProperties(
+        @DefaultValue("100") int blockSize
+) {}
@@ -0,0 +1,111 @@
+package com.bank.account.service.numbering;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Номера вида ACC + 11 цифр + контрольная цифра Луна. Диапазоны арендуются у БД блоками,
+ * внутри блока номер выдается без блокировок и без запросов к БД.
+ */
+@Slf4j
+@Component
+public class BlockAccountNumberGenerator implements AccountNumberGenerator {
+
+    private static final String PREFIX = "ACC";
+    private static final int BODY_DIGITS = 11;
+    private static final Pattern CURRENT_FORMAT = Pattern.compile("ACC\\d{12}");
+    // Номера, выданные до появления генератора: ACC + миллисекунды + до трех случайных цифр
+    private static final Pattern LEGACY_FORMAT = Pattern.compile("ACC\\d{14,16}");
+
+    private final AccountNumberAllocator allocator;
+    private final int blockSize;
+    private final AtomicReference<Range> range = new AtomicReference<>(new Range(0, 0));
+    private final ReentrantLock refill = new ReentrantLock();
+
+    public BlockAccountNumberGenerator(AccountNumberAllocator allocator, AccountNumberProperties properties) {
+        this.allocator = allocator;
+        this.blockSize = properties.blockSize();
+    }
+
+    @Override
+    public String next() {
+        String body = String.format("%0" + BODY_DIGITS + "d", nextValue());
+        return PREFIX + body + checkDigit(body);
+    }
+
+    @Override
+    public boolean isValid(String accountNumber) {
+        if (accountNumber == null) {
+            return false;
+        }
+        if (CURRENT_FORMAT.matcher(accountNumber).matches()) {
+            String digits = accountNumber.substring(PREFIX.length());
+            return checkDigit(digits.substring(0, BODY_DIGITS)) == digits.charAt(BODY_DIGITS) - '0';
+        }
+        return LEGACY_FORMAT.matcher(accountNumber).matches();
+    }
+
+    private long nextValue() {
+        while (true) {
+            Range current = range.get();
+            long value = current.next.getAndIncrement();
+            if (value < current.end) {
+                return value;
+            }
+
+            refill.lock();
+            try {
+                // Блок мог обновить другой поток, пока этот ждал блокировку
+                if (range.get() == current) {
+                    long start = leaseBlock();
+                    range.set(new Range(start, start + blockSize));
+                }
+            } finally {
+                refill.unlock();
+            }
+        }
+    }
+
+    private long leaseBlock() {
+        try {
+            return allocator.lease(blockSize);
+        } catch (DataIntegrityViolationException e) {
+            // Строку счетчика одновременно создал другой узел — теперь она есть, повторяем
+            log.info("Строка счетчика номеров создана другим узлом, повторная аренда блока");
+            return allocator.lease(blockSize);
+        }
+    }
+
+    static int checkDigit(String digits) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static final class Range {
+        private final AtomicLong next;
+        private final long end;
+
+        private Range(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
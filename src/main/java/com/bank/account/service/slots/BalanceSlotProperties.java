@@ -0,0 +1,13 @@
+package com.bank.account.service.slots;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.balance-slots")
+public record BalanceSlotProperties(
+        @DefaultValue("64") int maxSlots,
+        // Как быстро остальные экземпляры узнают о включении или выключении слотов у счета
+        @DefaultValue("30s") Duration refreshInterval
+) {}
@@ -0,0 +1,155 @@
+package com.bank.account.service.slots;
+
+import com.bank.account.exception.AccountNotFoundException;
+import com.bank.account.exception.InsufficientFundsException;
+import com.bank.account.exception.ValidationException;
+import com.bank.account.model.Account;
+import com.bank.account.model.AccountType;
+import com.bank.account.model.BalanceSlot;
+import com.bank.account.repository.AccountBalance;
+import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.BalanceRepository;
+import com.bank.account.repository.BalanceSlotRepository;
+import com.bank.account.repository.SlotLayout;
+import com.bank.account.service.AccountCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Разделенный баланс для горячих счетов: зачисления идут в случайный слот, списания — сначала из слотов,
+ * затем из строки счета, и только при нехватке везде блокируют счет целиком и сводят слоты.
+ * Номер счета и строка accounts не меняются, баланс для клиента — сумма строки и слотов.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SplitBalanceService {
+
+    private final BalanceRepository balanceRepository;
+    private final BalanceSlotRepository slotRepository;
+    private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
+    private final BalanceSlotProperties properties;
+
+    // Только разделенные счета: обычные проводки не платят за проверку ни одним запросом
+    private volatile Map<String, SlotLayout> layouts = Map.of();
+
+    @Scheduled(fixedDelayString = "${bank.balance-slots.refresh-interval:PT30S}")
+    public void refresh() {
+        Map<String, SlotLayout> loaded = slotRepository.findLayouts()
+                .stream()
+                .collect(Collectors.toUnmodifiableMap(SlotLayout::accountNumber, Function.identity()));
+        if (!loaded.keySet().equals(layouts.keySet())) {
+            log.info("Счета с разделенным балансом: {}", loaded.keySet());
+        }
+        layouts = loaded;
+    }
+
+    /**
+     * Зачисление в случайный слот. Пусто — счет не разделен, зачислять в строку accounts.
+     */
+    public Optional<AccountBalance> credit(String accountNumber, BigDecimal amount) {
+        SlotLayout layout = layouts.get(accountNumber);
+        if (layout == null) {
+            return Optional.empty();
+        }
+
+        int slot = ThreadLocalRandom.current().nextInt(layout.slots());
+        // Слотов уже нет: режим выключен, а раскладка еще не обновилась — обычное зачисление тоже корректно
+        if (!balanceRepository.creditSlot(layout.id(), slot, amount)) {
+            return Optional.empty();
+        }
+        return Optional.of(balanceOf(layout, balanceRepository.totalBalance(layout.id())));
+    }
+
+    /**
+     * Списание с разделенного счета. Пусто — счет не разделен, списывать со строки accounts.
+     */
+    public Optional<AccountBalance> debit(String accountNumber, BigDecimal amount) {
+        SlotLayout layout = layouts.get(accountNumber);
+        if (layout == null) {
+            return Optional.empty();
+        }
+
+        int start = ThreadLocalRandom.current().nextInt(layout.slots());
+        for (int i = 0; i < layout.slots(); i++) {
+            if (balanceRepository.debitSlot(layout.id(), (start + i) % layout.slots(), amount)) {
+                return Optional.of(balanceOf(layout, balanceRepository.totalBalance(layout.id())));
+            }
+        }
+        if (balanceRepository.debitById(layout.id(), amount)) {
+            return Optional.of(balanceOf(layout, balanceRepository.totalBalance(layout.id())));
+        }
+
+        BigDecimal balance = balanceRepository.debitDrainingSlots(layout.id(), amount)
+                .orElseThrow(() -> new InsufficientFundsException(
+                        accountNumber, balanceRepository.totalBalance(layout.id()), amount));
+        return Optional.of(balanceOf(layout, balance));
+    }
+
+    public BigDecimal totalBalance(Account account) {
+        return isSplit(account) ? balanceRepository.totalBalance(account.getId()) : account.getBalance();
+    }
+
+    /**
+     * Переносит слоты в Account.balance. Строка счета должна быть уже заблокирована вызывающим.
+     */
+    public void consolidate(Account account) {
+        if (isSplit(account)) {
+            account.setBalance(account.getBalance().add(balanceRepository.drainSlots(account.getId())));
+        }
+    }
+
+    /**
+     * Включает (slots > 0), меняет или выключает (0) разделенный баланс. Остатки старых слотов
+     * переносятся в строку счета, новые слоты создаются пустыми.
+     */
+    @Transactional
+    public void resize(String accountNumber, int slots) {
+        if (slots < 0 || slots > properties.maxSlots()) {
+            throw new ValidationException("Число слотов должно быть от 0 до " + properties.maxSlots(), List.of("slots"));
+        }
+
+        Account account = accountRepository.findAllByAccountNumberForUpdate(List.of(accountNumber))
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+        // Начисление процентов читает только accounts.balance
+        if (slots > 0 && account.getType() == AccountType.SAVINGS) {
+            throw new ValidationException("Разделенный баланс недоступен для сберегательных счетов", List.of("slots"));
+        }
+
+        account.setBalance(account.getBalance().add(balanceRepository.drainSlots(account.getId())));
+        slotRepository.deleteByAccountId(account.getId());
+        slotRepository.saveAll(IntStream.range(0, slots)
+                .mapToObj(slot -> BalanceSlot.builder()
+                        .accountId(account.getId())
+                        .slot(slot)
+                        .build())
+                .toList());
+        account.setBalanceSlots(slots > 0 ? slots : null);
+
+        accountCache.evict(accountNumber, account.getUser().getId());
+        log.info("Счет {}: слотов баланса {}", accountNumber, slots);
+    }
+
+    private static boolean isSplit(Account account) {
+        return account.getBalanceSlots() != null && account.getBalanceSlots() > 0;
+    }
+
+    private static AccountBalance balanceOf(SlotLayout layout, BigDecimal balance) {
+        return new AccountBalance(layout.id(), layout.accountNumber(), layout.userId(), balance);
+    }
+}
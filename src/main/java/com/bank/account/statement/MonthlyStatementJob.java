@@ -0,0 +1,228 @@
+package com.bank.account.statement;
+
+import com.bank.account.batch.IdRange;
+import com.bank.account.batch.IdRanges;
+import com.bank.account.dto.StatementJobStatus;
+import com.bank.account.exception.StatementJobRunningException;
+import com.bank.account.exception.ValidationException;
+import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.BalanceCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Месячные выписки по всем счетам. Счета делятся на диапазоны id, диапазоны разбирают виртуальные потоки,
+ * а обращения к БД ограничены бюджетом соединений. План партиций и контрольные точки лежат рядом с файлами,
+ * поэтому повторный запуск за тот же месяц продолжает с места остановки.
+ */
+@Slf4j
+@Component
+public class MonthlyStatementJob {
+
+    private static final String PLAN_FILE = "partitions.txt";
+
+    private final AccountRepository accountRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final StatementPartitionProcessor processor;
+    private final StatementBatchProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicReference<StatementRun> current = new AtomicReference<>();
+    private volatile StatementRun last;
+
+    public MonthlyStatementJob(AccountRepository accountRepository,
+                               BalanceCheckpointRepository checkpointRepository,
+                               StatementPartitionProcessor processor,
+                               StatementBatchProperties properties,
+                               PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.processor = processor;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Scheduled(cron = "${bank.statements.cron:0 0 2 1 * *}")
+    public void runPreviousMonth() {
+        try {
+            run(YearMonth.now().minusMonths(1));
+        } catch (StatementJobRunningException e) {
+            log.warn("Плановый запуск выписок пропущен: {}", e.getMessage());
+        }
+    }
+
+    /** Прогон в текущем потоке. */
+    public StatementJobStatus run(YearMonth period) {
+        StatementRun run = begin(period);
+        execute(run);
+        return run.status();
+    }
+
+    /** Прогон в отдельном потоке; ход выполнения — через {@link #status()}. */
+    public StatementJobStatus start(YearMonth period) {
+        StatementRun run = begin(period);
+        Thread.ofVirtual().name("statement-job-" + period).start(() -> execute(run));
+        return run.status();
+    }
+
+    /** Текущий прогон, а если его нет — последний завершенный. */
+    public StatementJobStatus status() {
+        StatementRun run = current.get();
+        if (run == null) {
+            run = last;
+        }
+        return run != null ? run.status() : null;
+    }
+
+    private StatementRun begin(YearMonth period) {
+        if (!period.isBefore(YearMonth.now())) {
+            throw new ValidationException("Выписки формируются только за завершенный месяц", List.of("period"));
+        }
+
+        StatementRun run = new StatementRun(period, properties.directory().resolve(period.toString()),
+                properties.connectionBudget());
+        StatementRun running = current.compareAndExchange(null, run);
+        if (running != null) {
+            throw new StatementJobRunningException(running.period().toString());
+        }
+        return run;
+    }
+
+    private void execute(StatementRun run) {
+        try {
+            Files.createDirectories(run.directory());
+            List<IdRange> partitions = plan(run);
+            LocalDate watermark = checkpointRepository.findWatermark();
+            run.start(partitions.size(), watermark);
+
+            log.info("Выписки за {}: {} партиций, {} потоков, бюджет {} соединений",
+                    run.period(), partitions.size(), properties.parallelism(), properties.connectionBudget());
+
+            Queue<IdRange> queue = new ConcurrentLinkedQueue<>(partitions);
+            int workers = Math.max(1, Math.min(properties.parallelism(), partitions.size()));
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+                for (int i = 0; i < workers; i++) {
+                    futures[i] = CompletableFuture.runAsync(() -> drain(run, queue), executor);
+                }
+                awaitWithProgress(run, CompletableFuture.allOf(futures));
+            }
+
+            run.finish();
+            StatementJobStatus status = run.status();
+            if (status.failedPartitions().isEmpty()) {
+                log.info("Выписки за {} готовы: {} счетов, {} операций за {} с ({} счетов/с, {} операций/с)",
+                        status.period(), status.accounts(), status.transactions(),
+                        format(status.elapsedSeconds()), format(status.accountsPerSecond()),
+                        format(status.transactionsPerSecond()));
+            } else {
+                log.error("Выписки за {} сформированы не полностью, партиции с ошибками: {}. "
+                        + "Повторный запуск продолжит с контрольных точек", status.period(), status.failedPartitions());
+            }
+        } catch (Exception e) {
+            run.fail();
+            log.error("Задание выписок за {} прервано", run.period(), e);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            last = run;
+            current.set(null);
+        }
+    }
+
+    private void drain(StatementRun run, Queue<IdRange> queue) {
+        IdRange partition;
+        while ((partition = queue.poll()) != null) {
+            try {
+                processor.process(run, partition);
+                run.partitionCompleted();
+            } catch (InterruptedException e) {
+                run.partitionFailed(partition.index());
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Остальные партиции продолжают работу, эта будет дописана при следующем запуске
+                run.partitionFailed(partition.index());
+                log.error("Партиция {} выписок за {} завершилась ошибкой", partition.index(), run.period(), e);
+            }
+        }
+    }
+
+    private void awaitWithProgress(StatementRun run, CompletableFuture<Void> all)
+            throws InterruptedException, ExecutionException {
+        while (true) {
+            try {
+                all.get(properties.progressInterval().toMillis(), TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                StatementJobStatus status = run.status();
+                log.info("Выписки за {}: партиций {}/{}, {} счетов, {} счетов/с",
+                        status.period(), status.completedPartitions(), status.partitions(),
+                        status.accounts(), format(status.accountsPerSecond()));
+            }
+        }
+    }
+
+    // План сохраняется при первом запуске: новые счета не сдвигают границы уже начатых партиций
+    private List<IdRange> plan(StatementRun run) throws IOException, InterruptedException {
+        Path planFile = run.directory().resolve(PLAN_FILE);
+        List<String> boundaries;
+        if (Files.exists(planFile)) {
+            boundaries = Files.readAllLines(planFile, StandardCharsets.UTF_8).stream()
+                    .filter(line -> !line.isBlank())
+                    .toList();
+            log.info("Выписки за {}: продолжение по сохраненному плану", run.period());
+        } else {
+            boundaries = computeBoundaries(run);
+            Path tmp = planFile.resolveSibling(PLAN_FILE + ".tmp");
+            Files.write(tmp, boundaries, StandardCharsets.UTF_8);
+            Files.move(tmp, planFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        return IdRanges.of(boundaries);
+    }
+
+    // Читаются только ключи счетов
+    private List<String> computeBoundaries(StatementRun run) throws InterruptedException {
+        run.acquireConnection();
+        try {
+            return readOnlyTransaction.execute(status -> {
+                long total = accountRepository.count();
+                try (Stream<String> ids = accountRepository.streamIds()) {
+                    return IdRanges.boundaries(ids, total, properties.partitions());
+                }
+            });
+        } finally {
+            run.releaseConnection();
+        }
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
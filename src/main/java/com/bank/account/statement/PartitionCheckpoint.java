@@ -0,0 +1,71 @@
+package com.bank.account.statement;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Состояние партиции на диске: последний записанный счет и длина файла выписок на этот момент.
+ * При перезапуске файл обрезается до offset, и чтение продолжается со следующего за lastAccountId счета.
+ */
+record PartitionCheckpoint(String lastAccountId, long offset, long accounts, long transactions, boolean complete) {
+
+    static final PartitionCheckpoint EMPTY = new PartitionCheckpoint(null, 0, 0, 0, false);
+
+    PartitionCheckpoint advance(String accountId, long newOffset, long chunkAccounts, long chunkTransactions) {
+        return new PartitionCheckpoint(accountId, newOffset,
+                accounts + chunkAccounts, transactions + chunkTransactions, false);
+    }
+
+    PartitionCheckpoint completed() {
+        return new PartitionCheckpoint(lastAccountId, offset, accounts, transactions, true);
+    }
+
+    static PartitionCheckpoint load(Path file) {
+        if (!Files.exists(file)) {
+            return EMPTY;
+        }
+
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать контрольную точку " + file, e);
+        }
+
+        String lastAccountId = props.getProperty("lastAccountId");
+        return new PartitionCheckpoint(
+                lastAccountId == null || lastAccountId.isEmpty() ? null : lastAccountId,
+                Long.parseLong(props.getProperty("offset", "0")),
+                Long.parseLong(props.getProperty("accounts", "0")),
+                Long.parseLong(props.getProperty("transactions", "0")),
+                Boolean.parseBoolean(props.getProperty("complete", "false"))
+        );
+    }
+
+    // Запись через временный файл и атомарное переименование: после сбоя остается старая или новая точка
+    void store(Path file) {
+        Properties props = new Properties();
+        props.setProperty("lastAccountId", lastAccountId != null ? lastAccountId : "");
+        props.setProperty("offset", Long.toString(offset));
+        props.setProperty("accounts", Long.toString(accounts));
+        props.setProperty("transactions", Long.toString(transactions));
+        props.setProperty("complete", Boolean.toString(complete));
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                props.store(writer, null);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить контрольную точку " + file, e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.bank.account.statement;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "bank.statements")
+public record StatementBatchProperties(
+        @DefaultValue("statements") Path directory,
+        // Диапазонов id на месяц: больше партиций — мельче единица перезапуска
+        @DefaultValue("64") int partitions,
+        @DefaultValue("8") int parallelism,
+        // Соединений, одновременно занятых заданием, независимо от parallelism
+        @DefaultValue("4") int connectionBudget,
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("10s") Duration progressInterval
+) {}
@@ -0,0 +1,254 @@
+package com.bank.account.statement;
+
+import com.bank.account.batch.IdRange;
+import com.bank.account.model.Account;
+import com.bank.account.model.Transaction;
+import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.TransactionRepository;
+import com.bank.account.service.BalanceHistoryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Выписки одной партиции: счета читаются порциями по id, операции каждого счета — потоком.
+ * Порция целиком пишется в файл партиции, сбрасывается на диск и только затем фиксируется в контрольной точке.
+ */
+@Slf4j
+@Component
+public class StatementPartitionProcessor {
+
+    private static final Sort ID_ORDER = Sort.by("id");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final BalanceHistoryService balanceHistoryService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final StatementBatchProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Counter accountsWritten;
+    private final Counter transactionsWritten;
+
+    public StatementPartitionProcessor(AccountRepository accountRepository,
+                                       TransactionRepository transactionRepository,
+                                       BalanceHistoryService balanceHistoryService,
+                                       EntityManager entityManager,
+                                       ObjectMapper objectMapper,
+                                       StatementBatchProperties properties,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.balanceHistoryService = balanceHistoryService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.accountsWritten = Counter.builder("bank.statements.accounts")
+                .description("Счета, по которым записаны месячные выписки")
+                .register(meterRegistry);
+        this.transactionsWritten = Counter.builder("bank.statements.transactions")
+                .description("Операции, вошедшие в месячные выписки")
+                .register(meterRegistry);
+    }
+
+    void process(StatementRun run, IdRange partition) throws InterruptedException, IOException {
+        Path checkpointFile = run.directory().resolve(fileName(partition, "ckpt"));
+        Path outputFile = run.directory().resolve(fileName(partition, "ndjson"));
+
+        PartitionCheckpoint checkpoint = PartitionCheckpoint.load(checkpointFile);
+        if (checkpoint.complete()) {
+            log.debug("Партиция {} за {} уже готова", partition.index(), run.period());
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        long accountsBefore = checkpoint.accounts();
+        long transactionsBefore = checkpoint.transactions();
+        String after = checkpoint.lastAccountId() != null ? checkpoint.lastAccountId() : partition.afterId();
+
+        try (FileChannel channel = FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Хвост после последней точки записан до сбоя и будет сформирован заново
+            channel.truncate(checkpoint.offset());
+            channel.position(checkpoint.offset());
+
+            try (JsonGenerator generator = objectMapper.createGenerator(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))) {
+                Chunk chunk;
+                do {
+                    chunk = writeChunk(run, partition, after, generator);
+                    if (chunk.accounts() == 0) {
+                        break;
+                    }
+
+                    generator.flush();
+                    channel.force(false);
+                    checkpoint = checkpoint.advance(chunk.lastAccountId(), channel.position(),
+                            chunk.accounts(), chunk.transactions());
+                    checkpoint.store(checkpointFile);
+
+                    run.recordChunk(chunk.accounts(), chunk.transactions());
+                    accountsWritten.increment(chunk.accounts());
+                    transactionsWritten.increment(chunk.transactions());
+                    after = chunk.lastAccountId();
+                } while (chunk.accounts() == properties.chunkSize());
+            }
+        }
+
+        checkpoint.completed().store(checkpointFile);
+
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        long accounts = checkpoint.accounts() - accountsBefore;
+        log.info("Партиция {} за {} готова: {} счетов, {} операций за {} с ({} счетов/с)",
+                partition.index(), run.period(), accounts, checkpoint.transactions() - transactionsBefore,
+                String.format("%.1f", seconds), String.format("%.0f", seconds > 0 ? accounts / seconds : 0));
+    }
+
+    // Одна порция — одна транзакция только для чтения и одно соединение из бюджета задания
+    private Chunk writeChunk(StatementRun run, IdRange partition, String after, JsonGenerator generator)
+            throws InterruptedException {
+        run.acquireConnection();
+        try {
+            return readOnlyTransaction.execute(status -> {
+                List<Account> accounts = accountRepository.findBy(
+                        chunkSpecification(partition, after, run.periodEnd()),
+                        query -> query.sortBy(ID_ORDER).limit(properties.chunkSize()).all()
+                );
+                if (accounts.isEmpty()) {
+                    return Chunk.EMPTY;
+                }
+
+                long transactions = 0;
+                for (Account account : accounts) {
+                    transactions += writeStatement(run, account, generator);
+                }
+                return new Chunk(accounts.getLast().getId(), accounts.size(), transactions);
+            });
+        } finally {
+            run.releaseConnection();
+        }
+    }
+
+    private long writeStatement(StatementRun run, Account account, JsonGenerator generator) {
+        BigDecimal opening = balanceHistoryService.closingBalance(account, run.openingDate(), run.watermark());
+        BigDecimal credits = BigDecimal.ZERO;
+        BigDecimal debits = BigDecimal.ZERO;
+        long count = 0;
+
+        generator.writeStartObject();
+        generator.writeName("accountNumber");
+        generator.writeString(account.getAccountNumber());
+        generator.writeName("period");
+        generator.writeString(run.period().toString());
+        generator.writeName("openingBalance");
+        generator.writeNumber(opening);
+
+        generator.writeName("transactions");
+        generator.writeStartArray();
+        try (Stream<Transaction> rows = transactionRepository.streamByAccountBetween(
+                account, run.periodStart(), run.periodEnd())) {
+            Iterator<Transaction> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                writeTransaction(transaction, generator);
+
+                if (transaction.getType().isCredit()) {
+                    credits = credits.add(transaction.getAmount());
+                } else {
+                    debits = debits.add(transaction.getAmount());
+                }
+
+                // Отцепляем строку от контекста, чтобы память не росла с длиной истории
+                entityManager.detach(transaction);
+                count++;
+            }
+        }
+        generator.writeEndArray();
+
+        generator.writeName("credits");
+        generator.writeNumber(credits);
+        generator.writeName("debits");
+        generator.writeNumber(debits);
+        // Как в BalanceHistoryService.closingBalance: выписка сходится с историей балансов и контрольными
+        // точками, а не с balanceAfter последней строки, который зависит от порядка выборки
+        generator.writeName("closingBalance");
+        generator.writeNumber(opening.add(credits).subtract(debits));
+        generator.writeName("transactionCount");
+        generator.writeNumber(count);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+
+        return count;
+    }
+
+    private void writeTransaction(Transaction transaction, JsonGenerator generator) {
+        generator.writeStartObject();
+        generator.writeName("id");
+        generator.writeString(transaction.getId().toString());
+        generator.writeName("timestamp");
+        generator.writeString(transaction.getTimestamp().toString());
+        generator.writeName("type");
+        generator.writeString(transaction.getType().name());
+        generator.writeName("amount");
+        generator.writeNumber(transaction.getAmount());
+        generator.writeName("balanceAfter");
+        generator.writeNumber(transaction.getBalanceAfter());
+        generator.writeName("description");
+        generator.writeString(transaction.getDescription());
+        generator.writeEndObject();
+    }
+
+    // Счета партиции после after, открытые до конца периода
+    private Specification<Account> chunkSpecification(IdRange partition, String after,
+                                                      LocalDateTime periodEnd) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (after != null) {
+                predicates.add(cb.greaterThan(root.<String>get("id"), after));
+            }
+            if (partition.lastId() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<String>get("id"), partition.lastId()));
+            }
+            predicates.add(cb.or(
+                    cb.isNull(root.get("createdAt")),
+                    cb.lessThan(root.<LocalDateTime>get("createdAt"), periodEnd)
+            ));
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static String fileName(IdRange partition, String suffix) {
+        return "partition-%04d.%s".formatted(partition.index(), suffix);
+    }
+
+    private record Chunk(String lastAccountId, int accounts, long transactions) {
+        static final Chunk EMPTY = new Chunk(null, 0, 0);
+    }
+}
@@ -0,0 +1,127 @@
+package com.bank.account.statement;
+
+import com.bank.account.dto.StatementJobStatus;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Один прогон задания за месяц: границы периода, бюджет соединений и счетчики прогресса.
+ * Счетчики учитывают только работу этого прогона, без партиций, завершенных до перезапуска.
+ */
+class StatementRun {
+
+    enum State { RUNNING, COMPLETED, FAILED }
+
+    private final YearMonth period;
+    private final Path directory;
+    private final Semaphore connections;
+    private final long startedAt = System.nanoTime();
+
+    private final AtomicLong accounts = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicInteger completedPartitions = new AtomicInteger();
+    private final ConcurrentSkipListSet<Integer> failedPartitions = new ConcurrentSkipListSet<>();
+
+    private volatile int partitions;
+    private volatile LocalDate watermark;
+    private volatile State state = State.RUNNING;
+    private volatile long finishedAt;
+
+    StatementRun(YearMonth period, Path directory, int connectionBudget) {
+        this.period = period;
+        this.directory = directory;
+        this.connections = new Semaphore(Math.max(1, connectionBudget), true);
+    }
+
+    YearMonth period() {
+        return period;
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    LocalDateTime periodStart() {
+        return period.atDay(1).atStartOfDay();
+    }
+
+    LocalDateTime periodEnd() {
+        return period.plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    // Входящий остаток — баланс на конец предыдущего месяца
+    LocalDate openingDate() {
+        return period.atDay(1).minusDays(1);
+    }
+
+    LocalDate watermark() {
+        return watermark;
+    }
+
+    void start(int partitions, LocalDate watermark) {
+        this.partitions = partitions;
+        this.watermark = watermark;
+    }
+
+    void acquireConnection() throws InterruptedException {
+        connections.acquire();
+    }
+
+    void releaseConnection() {
+        connections.release();
+    }
+
+    void recordChunk(long chunkAccounts, long chunkTransactions) {
+        accounts.addAndGet(chunkAccounts);
+        transactions.addAndGet(chunkTransactions);
+    }
+
+    void partitionCompleted() {
+        completedPartitions.incrementAndGet();
+    }
+
+    void partitionFailed(int index) {
+        failedPartitions.add(index);
+    }
+
+    void finish() {
+        finishedAt = System.nanoTime();
+        state = failedPartitions.isEmpty() ? State.COMPLETED : State.FAILED;
+    }
+
+    void fail() {
+        finishedAt = System.nanoTime();
+        state = State.FAILED;
+    }
+
+    double elapsedSeconds() {
+        long end = finishedAt != 0 ? finishedAt : System.nanoTime();
+        return (end - startedAt) / 1e9;
+    }
+
+    StatementJobStatus status() {
+        double elapsed = elapsedSeconds();
+        long processedAccounts = accounts.get();
+        long processedTransactions = transactions.get();
+        return new StatementJobStatus(
+                period.toString(),
+                state.name(),
+                partitions,
+                completedPartitions.get(),
+                List.copyOf(failedPartitions),
+                processedAccounts,
+                processedTransactions,
+                elapsed,
+                elapsed > 0 ? processedAccounts / elapsed : 0,
+                elapsed > 0 ? processedTransactions / elapsed : 0
+        );
+    }
+}
@@ -0,0 +1,6 @@
+-- Ключ идемпотентности резервируется до выполнения операции, ответ дописывается после,
+-- поэтому idempotency_keys.response должен допускать NULL (PostgreSQL).
+-- Выполняется один раз до выката: ddl-auto=update не снимает NOT NULL с существующей колонки.
+
+ALTER TABLE idempotency_keys
+    ALTER COLUMN response DROP NOT NULL;
@@ -0,0 +1,16 @@
+-- Перевод transactions.id с varchar(255) на нативный uuid (PostgreSQL).
+-- Выполняется один раз до выката версии с UUIDv7-идентификаторами: схема ведется через
+-- ddl-auto=update, а Hibernate не меняет тип существующей колонки.
+--
+-- Старые строки сохраняют случайные UUIDv4 (каст без потерь), новые получают UUIDv7,
+-- которые растут по времени и дописываются в правый край B-дерева.
+
+BEGIN;
+
+ALTER TABLE transactions
+    ALTER COLUMN id TYPE uuid USING id::uuid;
+
+COMMIT;
+
+-- После миграции индекс первичного ключа можно уплотнить без блокировки записи:
+-- REINDEX INDEX CONCURRENTLY transactions_pkey;
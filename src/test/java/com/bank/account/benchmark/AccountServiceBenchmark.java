@@ -0,0 +1,126 @@
+package com.bank.account.benchmark;
+
+import com.bank.account.BankAccountServiceApplication;
+import com.bank.account.dto.CreateAccountRequest;
+import com.bank.account.dto.RegistrationRequest;
+import com.bank.account.dto.TransactionRequest;
+import com.bank.account.dto.TransactionResponse;
+import com.bank.account.dto.TransferRequest;
+import com.bank.account.dto.TransferResponse;
+import com.bank.account.model.AccountType;
+import com.bank.account.model.User;
+import com.bank.account.security.UserDetailsImpl;
+import com.bank.account.service.AccountService;
+import com.bank.account.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проводки через полный стек сервиса (Spring, JPA, H2). Сравнивать между релизами нужно
+ * результаты одного профиля и одной машины: абсолютные числа для H2 и PostgreSQL различаются.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    private static final BigDecimal INITIAL_DEPOSIT = new BigDecimal("1000000000.00");
+
+    @Param({"64"})
+    public int accounts;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BankAccountServiceApplication.class)
+                .profiles("h2")
+                .properties("server.port=0")
+                .run();
+        accountService = context.getBean(AccountService.class);
+
+        String email = "benchmark@bank.local";
+        User user = context.getBean(UserService.class)
+                .registerUser(new RegistrationRequest(email, "+70000000000", "Bench", "Mark"));
+
+        // Сервисы проверяют владельца счета: один аутентифицированный пользователь на все потоки JMH
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        UserDetailsImpl principal = new UserDetailsImpl(user.getId(), email, "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+
+        accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountNumbers[i] = accountService
+                    .createAccount(new CreateAccountRequest(email, AccountType.CHECKING, INITIAL_DEPOSIT))
+                    .accountNumber();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Posting {
+        private final SplittableRandom random = new SplittableRandom();
+        private final TransactionRequest request = new TransactionRequest();
+        private final TransferRequest transfer = new TransferRequest();
+
+        @Setup
+        public void prepare() {
+            request.setAmount(new BigDecimal("1.00"));
+            transfer.setAmount(new BigDecimal("1.00"));
+        }
+
+        String pick(String[] numbers) {
+            return numbers[random.nextInt(numbers.length)];
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TransactionResponse deposit(Posting posting) {
+        return accountService.deposit(posting.pick(accountNumbers), posting.request);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TransactionResponse withdraw(Posting posting) {
+        return accountService.withdraw(posting.pick(accountNumbers), posting.request);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TransferResponse transfer(Posting posting) {
+        String from = posting.pick(accountNumbers);
+        String to = posting.pick(accountNumbers);
+        while (to.equals(from)) {
+            to = posting.pick(accountNumbers);
+        }
+        posting.transfer.setFromAccountNumber(from);
+        posting.transfer.setToAccountNumber(to);
+        return accountService.transfer(posting.transfer);
+    }
+
+    // Все потоки в один счет: показывает поведение горячей строки
+    @Benchmark
+    @Threads(4)
+    public TransactionResponse depositHotAccount(Posting posting) {
+        return accountService.deposit(accountNumbers[0], posting.request);
+    }
+}
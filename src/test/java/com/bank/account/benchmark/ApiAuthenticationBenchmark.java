@@ -0,0 +1,67 @@
+package com.bank.account.benchmark;
+
+import com.bank.account.security.ApiCredentialsProperties;
+import com.bank.account.security.BoundedPasswordEncoder;
+import com.bank.account.security.HashingProperties;
+import com.bank.account.security.VerifiedCredentialsCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Аутентификация запроса API по HTTP Basic: BCrypt на каждый запрос против кэша проверенных
+ * учетных данных. Пароль проверяется на том же ограниченном пуле, что и в приложении.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class ApiAuthenticationBenchmark {
+
+    private static final String USERNAME = "client@bank.local";
+    private static final String PASSWORD = "correct horse battery staple";
+
+    public enum Verification { BCRYPT_EVERY_REQUEST, VERIFIED_CACHE }
+
+    @Param
+    public Verification verification;
+
+    private BoundedPasswordEncoder encoder;
+    private AuthenticationManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(),
+                new HashingProperties(0, 1024, Duration.ofSeconds(30)));
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(new InMemoryUserDetailsManager(
+                User.withUsername(USERNAME).password(encoder.encode(PASSWORD)).roles("USER").build()));
+        provider.setPasswordEncoder(encoder);
+
+        AuthenticationManager bcrypt = new ProviderManager(provider);
+        VerifiedCredentialsCache cache = new VerifiedCredentialsCache(
+                new ApiCredentialsProperties(Duration.ofMinutes(1), 10_000));
+        manager = verification == Verification.VERIFIED_CACHE ? attempt -> cache.authenticate(attempt, bcrypt) : bcrypt;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        encoder.destroy();
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, PASSWORD));
+    }
+}
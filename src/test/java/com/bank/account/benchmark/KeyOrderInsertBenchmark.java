@@ -0,0 +1,81 @@
+package com.bank.account.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вставка в таблицу с uuid-ключом: случайные UUIDv4 против растущих по времени UUIDv7.
+ * Таблица растет на протяжении всего прогона, поэтому разница проявляется по мере роста индекса.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class KeyOrderInsertBenchmark {
+
+    private static final int BATCH = 100;
+
+    public enum KeyOrder { RANDOM_V4, TIME_ORDERED_V7 }
+
+    @Param
+    public KeyOrder keyOrder;
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Connection connection;
+    private PreparedStatement insert;
+
+    @Setup(Level.Trial)
+    public void open() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:keys_" + keyOrder + ";DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE transactions (" +
+                    "id UUID PRIMARY KEY, account_id VARCHAR(36) NOT NULL, " +
+                    "amount NUMERIC(38, 2) NOT NULL, timestamp TIMESTAMP NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement(
+                "INSERT INTO transactions (id, account_id, amount, timestamp) VALUES (?, ?, ?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE transactions");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH; i++) {
+            insert.setObject(1, keyOrder == KeyOrder.RANDOM_V4 ? UUID.randomUUID() : uuidV7());
+            insert.setString(2, "account");
+            insert.setBigDecimal(3, BigDecimal.TEN);
+            insert.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            insert.addBatch();
+        }
+        int[] counts = insert.executeBatch();
+        connection.commit();
+        return counts;
+    }
+
+    // RFC 9562: 48 бит миллисекунд, версия 7, вариант 10, остальное — случайные биты
+    private UUID uuidV7() {
+        long msb = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
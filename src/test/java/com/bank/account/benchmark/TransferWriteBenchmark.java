@@ -0,0 +1,112 @@
+package com.bank.account.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись одного перевода: две независимые строки transactions (как до журнала проводок) против
+ * строки journal_entries и двух ног со ссылкой на нее. Индексы transactions — как в
+ * сущности Transaction, на journal_entry_id индекса нет. Коммит на каждый перевод, как в сервисе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class TransferWriteBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+
+    public enum Layout { INDEPENDENT_LEGS, JOURNAL_ENTRY }
+
+    @Param
+    public Layout layout;
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Connection connection;
+    private PreparedStatement insertEntry;
+    private PreparedStatement insertLeg;
+
+    @Setup(Level.Trial)
+    public void open() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:transfers_" + layout + ";DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE journal_entries (" +
+                    "id UUID PRIMARY KEY, debit_account_number VARCHAR(20) NOT NULL, " +
+                    "credit_account_number VARCHAR(20) NOT NULL, amount NUMERIC(38, 2) NOT NULL, " +
+                    "timestamp TIMESTAMP NOT NULL)");
+            ddl.execute("CREATE TABLE transactions (" +
+                    "id UUID PRIMARY KEY, account_id VARCHAR(36) NOT NULL, journal_entry_id UUID, " +
+                    "amount NUMERIC(38, 2) NOT NULL, type VARCHAR(20) NOT NULL, description VARCHAR(255) NOT NULL, " +
+                    "timestamp TIMESTAMP, balance_after NUMERIC(38, 2) NOT NULL, version BIGINT)");
+            ddl.execute("CREATE INDEX idx_transactions_account_ts ON transactions (account_id, timestamp DESC, id DESC)");
+            ddl.execute("CREATE INDEX idx_transactions_account_type_ts " +
+                    "ON transactions (account_id, type, timestamp DESC, id DESC)");
+            ddl.execute("CREATE INDEX idx_transactions_ts ON transactions (timestamp)");
+        }
+        connection.setAutoCommit(false);
+        insertEntry = connection.prepareStatement(
+                "INSERT INTO journal_entries (id, debit_account_number, credit_account_number, amount, timestamp) " +
+                        "VALUES (?, ?, ?, ?, ?)");
+        insertLeg = connection.prepareStatement(
+                "INSERT INTO transactions (id, account_id, journal_entry_id, amount, type, description, " +
+                        "timestamp, balance_after, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)");
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE transactions");
+            ddl.execute("DROP TABLE journal_entries");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void transfer() throws SQLException {
+        String from = "account-" + random.nextInt(ACCOUNTS);
+        String to = "account-" + random.nextInt(ACCOUNTS);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        UUID entry = null;
+        if (layout == Layout.JOURNAL_ENTRY) {
+            entry = UUID.randomUUID();
+            insertEntry.setObject(1, entry);
+            insertEntry.setString(2, from);
+            insertEntry.setString(3, to);
+            insertEntry.setBigDecimal(4, BigDecimal.TEN);
+            insertEntry.setTimestamp(5, now);
+            insertEntry.executeUpdate();
+        }
+
+        // Hibernate (batch_size, order_inserts) и до журнала отправлял обе ноги одним пакетом при коммите
+        leg(from, entry, "TRANSFER_OUT", "Перевод на счет: " + to, now);
+        insertLeg.addBatch();
+        leg(to, entry, "TRANSFER_IN", "Перевод с счета: " + from, now);
+        insertLeg.addBatch();
+        insertLeg.executeBatch();
+        connection.commit();
+    }
+
+    private void leg(String account, UUID entry, String type, String description, Timestamp now) throws SQLException {
+        insertLeg.setObject(1, UUID.randomUUID());
+        insertLeg.setString(2, account);
+        insertLeg.setObject(3, entry);
+        insertLeg.setBigDecimal(4, BigDecimal.TEN);
+        insertLeg.setString(5, type);
+        insertLeg.setString(6, description);
+        insertLeg.setTimestamp(7, now);
+        insertLeg.setBigDecimal(8, BigDecimal.valueOf(1000));
+    }
+}
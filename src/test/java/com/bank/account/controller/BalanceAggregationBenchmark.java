@@ -0,0 +1,47 @@
+package com.bank.account.controller;
+
+import com.bank.account.dto.AccountResponse;
+import com.bank.account.model.AccountType;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BalanceAggregationBenchmark {
+
+    @Param({"3", "30", "300"})
+    public int accounts;
+
+    private List<AccountResponse> responses;
+
+    @Setup
+    public void prepare() {
+        responses = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            responses.add(new AccountResponse("ACC" + i, BigDecimal.valueOf(100_000L + i, 2), AccountType.CHECKING));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal totalBalance() {
+        return AccountController.totalBalance(responses);
+    }
+
+    // Цикл без stream: на списках в сотни счетов разница в пределах погрешности
+    @Benchmark
+    public BigDecimal forLoop() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (AccountResponse account : responses) {
+            total = total.add(account.balance());
+        }
+        return total;
+    }
+}
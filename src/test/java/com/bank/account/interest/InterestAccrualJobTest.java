@@ -0,0 +1,95 @@
+package com.bank.account.interest;
+
+import com.bank.account.dto.InterestAccrualResult;
+import com.bank.account.model.Account;
+import com.bank.account.model.AccountType;
+import com.bank.account.model.Role;
+import com.bank.account.model.User;
+import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.TransactionRepository;
+import com.bank.account.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class InterestAccrualJobTest {
+
+    @Autowired
+    private InterestAccrualJob job;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rerunForTheSameDayDoesNotPayTwice() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Account account = savingsAccount(new BigDecimal("1000.00"));
+
+        InterestAccrualResult first = job.accrue(yesterday);
+        InterestAccrualResult rerun = job.accrue(yesterday);
+
+        Account accrued = accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow();
+        assertThat(first.failedRanges()).isZero();
+        assertThat(rerun.accounts()).isZero();
+        assertThat(accrued.getBalance()).isEqualByComparingTo("1000.10");
+        assertThat(accrued.getInterestCarry()).isEqualByComparingTo("0.0095890411");
+        assertThat(accrued.getInterestAccruedThrough()).isEqualTo(yesterday);
+        assertThat(transactionRepository.findByAccountNumber(account.getAccountNumber())).hasSize(1);
+    }
+
+    @Test
+    void missedDaysAreAccruedInOneRun() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Account account = savingsAccount(new BigDecimal("1000.00"));
+        jdbcTemplate.update("UPDATE accounts SET interest_accrued_through = ? WHERE id = ?",
+                yesterday.minusDays(10), account.getId());
+
+        job.accrue(yesterday);
+
+        // 10 дней по 0.1095890410...: 1.0958904110, выплачено 1.09
+        Account accrued = accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow();
+        assertThat(accrued.getBalance()).isEqualByComparingTo("1001.09");
+        assertThat(accrued.getInterestCarry()).isEqualByComparingTo("0.0058904110");
+    }
+
+    private Account savingsAccount(BigDecimal balance) {
+        long suffix = ThreadLocalRandom.current().nextLong(1_000_000_000L, 9_999_999_999L);
+        User user = userRepository.save(User.builder()
+                .email("interest" + suffix + "@example.com")
+                .phoneNumber("+7" + suffix)
+                .password("123")
+                .firstName("Interest")
+                .lastName("Test")
+                .role(Role.USER)
+                .build());
+        Account account = accountRepository.save(Account.builder()
+                .user(user)
+                .accountNumber("4230781" + suffix + "000")
+                .type(AccountType.SAVINGS)
+                .balance(balance)
+                .build());
+        // Счет, открытый сегодня, за вчера процентов не получает
+        jdbcTemplate.update("UPDATE accounts SET created_at = ? WHERE id = ?",
+                LocalDate.now().minusDays(30).atStartOfDay(), account.getId());
+        return account;
+    }
+}
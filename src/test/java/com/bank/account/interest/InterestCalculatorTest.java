@@ -0,0 +1,76 @@
+package com.bank.account.interest;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InterestCalculatorTest {
+
+    private final InterestCalculator calculator = new InterestCalculator(
+            new InterestProperties(true, new BigDecimal("0.04"), 365, 16, 4, 1000));
+
+    @Test
+    void paysWholeKopecksAndCarriesTheRest() {
+        // 1000 * 0.04 / 365 = 0.1095890410...
+        InterestCalculator.Accrual accrual = calculator.accrue(new BigDecimal("1000.00"), null, 1);
+
+        assertThat(accrual.payout()).isEqualByComparingTo("0.10");
+        assertThat(accrual.carry()).isEqualByComparingTo("0.0095890411");
+        assertThat(accrual.carry().scale()).isEqualTo(InterestCalculator.CARRY_SCALE);
+    }
+
+    @Test
+    void carryKeepsYearlyPayoutWithinAKopeck() {
+        BigDecimal balance = new BigDecimal("1000.00");
+        BigDecimal carry = null;
+        BigDecimal paid = BigDecimal.ZERO;
+
+        for (int day = 0; day < 365; day++) {
+            InterestCalculator.Accrual accrual = calculator.accrue(balance, carry, 1);
+            paid = paid.add(accrual.payout());
+            carry = accrual.carry();
+        }
+
+        // Без переноса остатка каждый день платилось бы 0.10, за год 36.50 вместо 40.00
+        BigDecimal exact = new BigDecimal("40.00");
+        assertThat(exact.subtract(paid).abs()).isLessThan(new BigDecimal("0.01"));
+        assertThat(carry).isLessThan(new BigDecimal("0.01"));
+        assertThat(paid.add(carry).setScale(2, RoundingMode.HALF_EVEN)).isEqualByComparingTo(exact);
+    }
+
+    @Test
+    void catchUpOverSeveralDaysMatchesDailyRuns() {
+        BigDecimal balance = new BigDecimal("12345.67");
+        BigDecimal carry = null;
+        BigDecimal paid = BigDecimal.ZERO;
+        for (int day = 0; day < 3; day++) {
+            InterestCalculator.Accrual accrual = calculator.accrue(balance, carry, 1);
+            paid = paid.add(accrual.payout());
+            carry = accrual.carry();
+        }
+
+        InterestCalculator.Accrual catchUp = calculator.accrue(balance, null, 3);
+
+        assertThat(catchUp.payout()).isEqualByComparingTo(paid);
+        assertThat(catchUp.carry().subtract(carry).abs()).isLessThanOrEqualTo(new BigDecimal("0.0000000002"));
+    }
+
+    @Test
+    void rerunForTheSameDayAccruesNothing() {
+        InterestCalculator.Accrual rerun = calculator.accrue(new BigDecimal("1000.00"), new BigDecimal("0.0095890411"), 0);
+
+        assertThat(rerun.payout()).isEqualByComparingTo("0.00");
+        assertThat(rerun.carry()).isEqualByComparingTo("0.0095890411");
+    }
+
+    @Test
+    void nonPositiveBalanceKeepsCarry() {
+        BigDecimal carry = new BigDecimal("0.0050000000");
+
+        assertThat(calculator.accrue(BigDecimal.ZERO, carry, 1).carry()).isEqualByComparingTo(carry);
+        assertThat(calculator.accrue(new BigDecimal("-10.00"), carry, 1).payout()).isEqualByComparingTo("0.00");
+    }
+}
@@ -0,0 +1,121 @@
+package com.bank.account.ledger;
+
+import com.bank.account.exception.InsufficientFundsException;
+import com.bank.account.exception.LedgerUnavailableException;
+import com.bank.account.model.Account;
+import com.bank.account.model.TransactionType;
+import com.bank.account.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LedgerEngineTest {
+
+    private static final String FROM = "ACC000000000001";
+    private static final String TO = "ACC000000000002";
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final LedgerWriter ledgerWriter = mock(LedgerWriter.class);
+    private LedgerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        account("acc-1", FROM, "100.00");
+        account("acc-2", TO, "0.00");
+        when(ledgerWriter.submit(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        LedgerProperties properties = new LedgerProperties(true, 16, 500, 10_000, Duration.ofMillis(50),
+                Duration.ofSeconds(1), 5, Path.of("ledger-parked"), Duration.ofSeconds(30),
+                new LedgerProperties.Journal(false, Path.of("ledger-journal"), DataSize.ofMegabytes(64)));
+        engine = new LedgerEngine(accountRepository, ledgerWriter, properties);
+    }
+
+    @Test
+    void depositAndWithdrawMoveBalanceAndQueuePostings() {
+        LedgerPosting deposit = engine.deposit(FROM, new BigDecimal("50.00"), "Пополнение");
+        LedgerPosting withdrawal = engine.withdraw(FROM, new BigDecimal("30.00"), "Снятие");
+
+        assertThat(deposit.type()).isEqualTo(TransactionType.DEPOSIT);
+        assertThat(deposit.balanceAfter()).isEqualByComparingTo("150.00");
+        assertThat(withdrawal.balanceAfter()).isEqualByComparingTo("120.00");
+        assertThat(engine.balanceOf(FROM)).hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("120.00"));
+        verify(ledgerWriter).submit(List.of(deposit));
+        verify(ledgerWriter).submit(List.of(withdrawal));
+    }
+
+    @Test
+    void transferQueuesBothLegsTogether() {
+        List<LedgerPosting> legs = engine.transfer(FROM, TO, new BigDecimal("40.00"));
+
+        assertThat(legs).extracting(LedgerPosting::type)
+                .containsExactly(TransactionType.TRANSFER_OUT, TransactionType.TRANSFER_IN);
+        assertThat(legs).extracting(LedgerPosting::balanceAfter)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("60.00"), new BigDecimal("40.00"));
+        verify(ledgerWriter).submit(legs);
+    }
+
+    @Test
+    void insufficientFundsLeaveBalanceUntouched() {
+        assertThatThrownBy(() -> engine.transfer(FROM, TO, new BigDecimal("100.01")))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        assertThat(engine.balanceOf(FROM)).hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("100.00"));
+        assertThat(engine.balanceOf(TO)).hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("0.00"));
+        verify(ledgerWriter, never()).submit(anyList());
+    }
+
+    @Test
+    void postingIsRefusedWhileWriterIsNotAccepting() {
+        engine.deposit(FROM, BigDecimal.ONE, "Пополнение");
+        doThrow(new LedgerUnavailableException("Запись проводок в БД временно не удается"))
+                .when(ledgerWriter).requireAccepting();
+
+        assertThatThrownBy(() -> engine.withdraw(FROM, BigDecimal.TEN, "Снятие"))
+                .isInstanceOf(LedgerUnavailableException.class);
+
+        assertThat(engine.balanceOf(FROM)).hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("101.00"));
+        // В очередь ушло только пополнение
+        verify(ledgerWriter, times(1)).submit(anyList());
+    }
+
+    @Test
+    void unconfirmedTransferIsRolledBack() {
+        doThrow(new UncheckedIOException("Журнал леджера недоступен", new IOException("msync")))
+                .when(ledgerWriter).awaitDurable(any());
+
+        assertThatThrownBy(() -> engine.transfer(FROM, TO, new BigDecimal("40.00")))
+                .isInstanceOf(UncheckedIOException.class);
+
+        assertThat(engine.balanceOf(FROM)).hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("100.00"));
+        assertThat(engine.balanceOf(TO)).hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("0.00"));
+    }
+
+    private void account(String id, String accountNumber, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .accountNumber(accountNumber)
+                .balance(new BigDecimal(balance))
+                .build();
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
+    }
+}
@@ -0,0 +1,191 @@
+package com.bank.account.ledger;
+
+import com.bank.account.exception.LedgerUnavailableException;
+import com.bank.account.model.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class LedgerWriterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    private final LedgerPersister persister = mock(LedgerPersister.class);
+    private LedgerWriter writer;
+
+    @AfterEach
+    void stopWriter() throws Exception {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void failedBatchIsRetried() throws Exception {
+        List<LedgerPosting> postings = List.of(posting("1"));
+        doThrow(new DataAccessResourceFailureException("БД недоступна"))
+                .doNothing()
+                .when(persister).persist(postings);
+        writer = start(3, Duration.ofMillis(10), Duration.ofSeconds(5));
+
+        writer.submit(postings);
+
+        verify(persister, timeout(5_000).times(2)).persist(postings);
+        assertThat(writer.failing()).isFalse();
+        assertThat(parked()).isEmpty();
+    }
+
+    @Test
+    void batchIsParkedAfterMaxRetriesAndWriterRecovers() throws Exception {
+        List<LedgerPosting> postings = List.of(posting("1"));
+        doThrow(new DataAccessResourceFailureException("БД недоступна")).when(persister).persist(postings);
+        writer = start(1, Duration.ofMillis(10), Duration.ofSeconds(5));
+
+        writer.submit(postings);
+
+        verify(persister, timeout(5_000).times(2)).persist(postings);
+        assertThat(awaitParked()).hasSize(1);
+        assertThat(Files.readAllLines(parked().getFirst())).singleElement().asString().contains("\"accountId\":\"acc-1\"");
+        // Пока БД не ответила на пробный запрос, новые проводки не принимаются; потом запись идет дальше
+        verify(persister, timeout(5_000)).appliedSequence();
+        awaitRecovered();
+        writer.requireAccepting();
+
+        List<LedgerPosting> next = List.of(posting("3"));
+        doNothing().when(persister).persist(next);
+        writer.submit(next);
+        verify(persister, timeout(5_000)).persist(next);
+    }
+
+    @Test
+    void failingWriterRejectsPostings() throws Exception {
+        doThrow(new DataAccessResourceFailureException("БД недоступна")).when(persister).persist(anyList());
+        doThrow(new DataAccessResourceFailureException("БД недоступна")).when(persister).appliedSequence();
+        writer = start(100, Duration.ofMillis(10), Duration.ofSeconds(5));
+
+        writer.submit(List.of(posting("1")));
+        verify(persister, timeout(5_000).atLeast(2)).persist(anyList());
+
+        assertThat(writer.failing()).isTrue();
+        assertThatThrownBy(writer::requireAccepting).isInstanceOf(LedgerUnavailableException.class);
+    }
+
+    @Test
+    void stopWhileRetryingParksInFlightBatch() throws Exception {
+        List<LedgerPosting> postings = List.of(posting("1"));
+        doThrow(new DataAccessResourceFailureException("БД недоступна")).when(persister).persist(postings);
+        // Повторов хватило бы надолго, пауза между ними длиннее ожидания остановки
+        writer = start(100, Duration.ofSeconds(1), Duration.ofMillis(100));
+
+        writer.submit(postings);
+        verify(persister, timeout(5_000)).persist(postings);
+        writer.stop();
+        writer = null;
+
+        List<Path> files = parked();
+        assertThat(files).hasSize(1);
+        assertThat(Files.readAllLines(files.getFirst())).singleElement().asString().contains("\"accountId\":\"acc-1\"");
+        verify(persister, times(1)).persist(postings);
+    }
+
+    @Test
+    void stopParksQueuedPostings() throws Exception {
+        List<LedgerPosting> first = List.of(posting("1"));
+        List<LedgerPosting> second = List.of(posting("2"));
+        doThrow(new DataAccessResourceFailureException("БД недоступна")).when(persister).persist(anyList());
+        writer = start(100, Duration.ofSeconds(1), Duration.ofMillis(100));
+
+        writer.submit(first);
+        verify(persister, timeout(5_000)).persist(first);
+        writer.submit(second);
+        writer.stop();
+        writer = null;
+
+        // Пачку в работе откладывает поток записи, очередь — остановка: обе проводки на диске, каждая один раз
+        List<String> lines = parked().stream().flatMap(LedgerWriterTest::lines).toList();
+        assertThat(lines).hasSize(2);
+        assertThat(lines).anyMatch(line -> line.contains("\"accountId\":\"acc-1\""));
+        assertThat(lines).anyMatch(line -> line.contains("\"accountId\":\"acc-2\""));
+    }
+
+    @Test
+    void stopRefusesNewPostings() throws Exception {
+        writer = start(3, Duration.ofMillis(10), Duration.ofSeconds(5));
+
+        writer.stop();
+
+        assertThatThrownBy(writer::requireAccepting).isInstanceOf(LedgerUnavailableException.class);
+        writer = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private LedgerWriter start(int maxRetries, Duration retryBackoff, Duration shutdownTimeout) throws Exception {
+        LedgerProperties properties = new LedgerProperties(true, 16, 500, 10_000, Duration.ofMillis(10),
+                retryBackoff, maxRetries, directory, shutdownTimeout,
+                new LedgerProperties.Journal(false, directory.resolve("journal"), DataSize.ofMegabytes(1)));
+        LedgerWriter started = new LedgerWriter(persister, properties, mock(ObjectProvider.class),
+                new ParkedPostings(properties, new JsonMapper()));
+        started.start();
+        return started;
+    }
+
+    private void awaitRecovered() throws InterruptedException {
+        for (int i = 0; i < 500 && writer.failing(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(writer.failing()).isFalse();
+    }
+
+    private List<Path> awaitParked() throws Exception {
+        for (int i = 0; i < 500 && parked().isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        return parked();
+    }
+
+    private List<Path> parked() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".ndjson")).toList();
+        }
+    }
+
+    private static Stream<String> lines(Path file) {
+        try {
+            return Files.readAllLines(file).stream();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static LedgerPosting posting(String id) {
+        return new LedgerPosting("acc-" + id, "40817810" + id, TransactionType.DEPOSIT,
+                new BigDecimal("10.00"), new BigDecimal("10.00"), "Пополнение " + id, NOW);
+    }
+}
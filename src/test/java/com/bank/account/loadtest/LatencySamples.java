@@ -0,0 +1,57 @@
+package com.bank.account.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Растущий массив задержек в наносекундах. Каждый рабочий поток пишет в свой экземпляр,
+ * отчет сливает их после остановки нагрузки, поэтому синхронизация не нужна.
+ */
+final class LatencySamples {
+
+    private long[] values = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    int count() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    void addAll(LatencySamples other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    long[] sorted() {
+        long[] copy = Arrays.copyOf(values, size);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    // Ближайший ранг: значение, не превышенное долей quantile всех замеров
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+    }
+}
@@ -0,0 +1,111 @@
+package com.bank.account.loadtest;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+record LoadReport(
+        int users,
+        int concurrency,
+        double seconds,
+        Map<Operation, Integer> mix,
+        List<OperationStats> operations,
+        OperationStats total,
+        long optimisticLockFailures,
+        long otherLockFailures,
+        double optimisticLockFailureRate
+) {
+
+    static LoadReport of(LoadTestSettings settings, double seconds, Map<Operation, LatencySamples> samples,
+                         LockFailureCounter counter) {
+        List<OperationStats> operations = new ArrayList<>();
+        LatencySamples all = new LatencySamples();
+        samples.forEach((operation, operationSamples) -> {
+            if (settings.mix().containsKey(operation) || operationSamples.count() > 0) {
+                operations.add(OperationStats.of(operation.key(), operationSamples, seconds));
+            }
+            all.addAll(operationSamples);
+        });
+
+        OperationStats total = OperationStats.of("total", all, seconds);
+        long optimistic = counter.optimisticFailures();
+
+        return new LoadReport(
+                settings.users(),
+                settings.concurrency(),
+                seconds,
+                settings.mix(),
+                operations,
+                total,
+                optimistic,
+                counter.otherConcurrencyFailures(),
+                total.requests() == 0 ? 0 : (double) optimistic / total.requests()
+        );
+    }
+
+    void print(PrintStream out) {
+        out.printf("Пользователей: %d, потоков: %d, замер: %.1f с%n", users, concurrency, seconds);
+        out.printf("%-10s %10s %8s %9s %10s %9s %9s %9s %9s%n",
+                "операция", "запросов", "ошибок", "доля", "RPS", "p50 мс", "p99 мс", "p999 мс", "max мс");
+        for (OperationStats stats : operations) {
+            stats.print(out);
+        }
+        total.print(out);
+        out.printf("Оптимистичные блокировки: %d (%.4f%% запросов), прочие конфликты блокировок: %d%n",
+                optimisticLockFailures, optimisticLockFailureRate * 100, otherLockFailures);
+    }
+
+    void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        JsonMapper.builder().build()
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(path.toFile(), this);
+    }
+
+    record OperationStats(
+            String operation,
+            long requests,
+            long errors,
+            double errorRate,
+            double throughput,
+            double p50Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs
+    ) {
+
+        static OperationStats of(String operation, LatencySamples samples, double seconds) {
+            long[] sorted = samples.sorted();
+            long requests = sorted.length + samples.errors();
+
+            return new OperationStats(
+                    operation,
+                    requests,
+                    samples.errors(),
+                    requests == 0 ? 0 : (double) samples.errors() / requests,
+                    seconds == 0 ? 0 : sorted.length / seconds,
+                    millis(LatencySamples.percentile(sorted, 0.50)),
+                    millis(LatencySamples.percentile(sorted, 0.99)),
+                    millis(LatencySamples.percentile(sorted, 0.999)),
+                    millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1])
+            );
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+
+        private void print(PrintStream out) {
+            out.printf("%-10s %10d %8d %8.2f%% %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation, requests, errors, errorRate * 100, throughput, p50Ms, p99Ms, p999Ms, maxMs);
+        }
+    }
+}
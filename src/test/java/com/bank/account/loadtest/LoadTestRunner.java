@@ -0,0 +1,188 @@
+package com.bank.account.loadtest;
+
+import com.bank.account.BankAccountServiceApplication;
+import com.bank.account.dto.CreateAccountRequest;
+import com.bank.account.dto.RegistrationRequest;
+import com.bank.account.loadtest.VirtualUser.SeededUser;
+import com.bank.account.model.AccountType;
+import com.bank.account.service.AccountService;
+import com.bank.account.service.UserService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Нагрузочный прогон внутри одной JVM: приложение на профиле {@code h2}, пользователи и счета
+ * заводятся через сервисы, затем {@code load.concurrency} сессий гоняют смесь запросов через HTTP.
+ *
+ * <pre>mvn -Pload-test test-compile exec:exec -Dload.concurrency=32 -Dload.duration=PT2M</pre>
+ */
+public final class LoadTestRunner {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final String AMOUNT = "1.00";
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                BankAccountServiceApplication.class, LoadTestConfiguration.class)
+                .profiles("h2")
+                .properties("server.port=0")
+                .run(args)) {
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            List<SeededUser> users = seed(context, settings);
+            LockFailureCounter counter = context.getBean(LockFailureCounter.class);
+
+            LoadReport report = run(baseUrl, users, settings, counter);
+            report.print(System.out);
+            report.write(settings.report());
+            System.out.println("Отчет: " + settings.report().toAbsolutePath());
+        }
+    }
+
+    private static List<SeededUser> seed(ConfigurableApplicationContext context, LoadTestSettings settings) {
+        UserService userService = context.getBean(UserService.class);
+        AccountService accountService = context.getBean(AccountService.class);
+
+        List<SeededUser> users = new ArrayList<>(settings.users());
+        for (int i = 0; i < settings.users(); i++) {
+            String email = "load-" + i + "@bank.local";
+            userService.registerUser(new RegistrationRequest(email, String.format("+7900%07d", i), "Load", "User" + i));
+            userService.setPassword(email, PASSWORD);
+
+            String accountNumber = accountService
+                    .createAccount(new CreateAccountRequest(email, AccountType.CHECKING, settings.initialDeposit()))
+                    .accountNumber();
+            users.add(new SeededUser(email, PASSWORD, accountNumber));
+        }
+        return users;
+    }
+
+    private static LoadReport run(String baseUrl, List<SeededUser> users, LoadTestSettings settings,
+                                  LockFailureCounter counter) throws Exception {
+        Operation[] table = weightedTable(settings.mix());
+        long measureFrom = System.nanoTime() + settings.warmup().toNanos();
+        long stopAt = measureFrom + settings.duration().toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(settings.concurrency());
+        try {
+            List<Future<Map<Operation, LatencySamples>>> futures = new ArrayList<>();
+            for (int i = 0; i < settings.concurrency(); i++) {
+                VirtualUser session = new VirtualUser(baseUrl, users.get(i % users.size()));
+                futures.add(workers.submit(() -> drive(session, users, table, measureFrom, stopAt)));
+            }
+
+            // Конфликты блокировок прогрева в отчет не попадают
+            Thread.sleep(settings.warmup().toMillis());
+            counter.reset();
+
+            Map<Operation, LatencySamples> merged = emptySamples();
+            for (Future<Map<Operation, LatencySamples>> future : futures) {
+                future.get().forEach((operation, samples) -> merged.get(operation).addAll(samples));
+            }
+
+            return LoadReport.of(settings, settings.duration().toNanos() / 1e9, merged, counter);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static Map<Operation, LatencySamples> drive(VirtualUser session, List<SeededUser> users, Operation[] table,
+                                                        long measureFrom, long stopAt) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom();
+        Map<Operation, LatencySamples> samples = emptySamples();
+        boolean loggedIn = false;
+
+        long start;
+        while ((start = System.nanoTime()) < stopAt) {
+            // Без сессии сначала входим: остальные операции требуют аутентификации и CSRF-токена
+            Operation operation = loggedIn ? table[random.nextInt(table.length)] : Operation.LOGIN;
+
+            boolean ok;
+            try {
+                ok = execute(operation, session, users, random);
+            } catch (IOException | RuntimeException e) {
+                ok = false;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            if (operation == Operation.LOGIN) {
+                loggedIn = ok;
+            }
+            if (start >= measureFrom) {
+                if (ok) {
+                    samples.get(operation).record(elapsed);
+                } else {
+                    samples.get(operation).error();
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static boolean execute(Operation operation, VirtualUser session, List<SeededUser> users,
+                                   SplittableRandom random) throws IOException, InterruptedException {
+        return switch (operation) {
+            case LOGIN -> session.login();
+            case DASHBOARD -> session.dashboard();
+            case DEPOSIT -> session.deposit(AMOUNT);
+            case TRANSFER -> session.transfer(recipient(session, users, random), AMOUNT);
+            case HISTORY -> session.history();
+        };
+    }
+
+    private static String recipient(VirtualUser session, List<SeededUser> users, SplittableRandom random) {
+        String own = session.user().accountNumber();
+        if (users.size() == 1) {
+            return own;
+        }
+        String target;
+        do {
+            target = users.get(random.nextInt(users.size())).accountNumber();
+        } while (target.equals(own));
+        return target;
+    }
+
+    private static Operation[] weightedTable(Map<Operation, Integer> mix) {
+        List<Operation> table = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                table.add(operation);
+            }
+        });
+        return table.toArray(Operation[]::new);
+    }
+
+    private static Map<Operation, LatencySamples> emptySamples() {
+        Map<Operation, LatencySamples> samples = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            samples.put(operation, new LatencySamples());
+        }
+        return samples;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class LoadTestConfiguration {
+
+        @Bean
+        LockFailureCounter lockFailureCounter() {
+            return new LockFailureCounter();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bank.account.loadtest;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Параметры прогона берутся из системных свойств {@code -Dload.*}, см. профиль {@code load-test} в pom.xml.
+ */
+record LoadTestSettings(
+        int users,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        BigDecimal initialDeposit,
+        Path report
+) {
+
+    static final String DEFAULT_MIX = "login=5,dashboard=30,deposit=25,transfer=20,history=20";
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("load.users", 50),
+                Integer.getInteger("load.concurrency", 16),
+                Duration.parse(System.getProperty("load.warmup", "PT10S")),
+                Duration.parse(System.getProperty("load.duration", "PT60S")),
+                parseMix(System.getProperty("load.mix", DEFAULT_MIX)),
+                new BigDecimal(System.getProperty("load.initial-deposit", "1000000.00")),
+                Path.of(System.getProperty("load.report", "target/load-test-result.json"))
+        );
+    }
+
+    // "login=5,dashboard=30,..." -> веса операций
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Неверный элемент load.mix: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.of(pair[0]), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("load.mix не содержит ни одной операции");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,63 @@
+package com.bank.account.loadtest;
+
+import jakarta.persistence.OptimisticLockException;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Внешний фильтр, который видит исключения, не обработанные MVC: по HTTP ошибка блокировки
+ * неотличима от любой другой 500, поэтому причины считаются внутри JVM.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+class LockFailureCounter implements Filter {
+
+    private final LongAdder optimistic = new LongAdder();
+    private final LongAdder otherConcurrency = new LongAdder();
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            classify(e);
+            throw e;
+        }
+    }
+
+    long optimisticFailures() {
+        return optimistic.sum();
+    }
+
+    long otherConcurrencyFailures() {
+        return otherConcurrency.sum();
+    }
+
+    void reset() {
+        optimistic.reset();
+        otherConcurrency.reset();
+    }
+
+    private void classify(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException) {
+                optimistic.increment();
+                return;
+            }
+            if (cause instanceof ConcurrencyFailureException) {
+                otherConcurrency.increment();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.bank.account.loadtest;
+
+import java.util.Locale;
+
+enum Operation {
+    LOGIN, DASHBOARD, DEPOSIT, TRANSFER, HISTORY;
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Operation of(String key) {
+        return valueOf(key.trim().toUpperCase(Locale.ROOT));
+    }
+}
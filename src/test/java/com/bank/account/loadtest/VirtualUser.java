@@ -0,0 +1,131 @@
+package com.bank.account.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Браузерная сессия одного пользователя: cookie, CSRF-токен из скрытого поля формы и
+ * те же запросы, что отправляют страницы сайта.
+ */
+final class VirtualUser {
+
+    private static final Pattern CSRF_FIELD = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final SeededUser user;
+    private HttpClient client;
+    private String csrfToken;
+
+    VirtualUser(String baseUrl, SeededUser user) {
+        this.baseUrl = baseUrl;
+        this.user = user;
+    }
+
+    SeededUser user() {
+        return user;
+    }
+
+    /**
+     * Новая сессия: страница входа, POST формы и форма пополнения, в которой лежит CSRF-токен
+     * уже аутентифицированной сессии (после входа Spring Security выдает новый токен).
+     */
+    boolean login() throws IOException, InterruptedException {
+        client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(TIMEOUT)
+                .build();
+
+        String loginPage = get("/auth/login").body();
+        HttpResponse<String> response = post("/auth/login", Map.of(
+                "username", user.email(),
+                "password", user.password(),
+                "_csrf", csrf(loginPage)
+        ));
+        if (!redirectsTo(response, "/account")) {
+            return false;
+        }
+
+        HttpResponse<String> form = get("/account/" + user.accountNumber() + "/deposit");
+        if (form.statusCode() != 200) {
+            return false;
+        }
+        csrfToken = csrf(form.body());
+        return true;
+    }
+
+    boolean dashboard() throws IOException, InterruptedException {
+        return get("/account").statusCode() == 200;
+    }
+
+    boolean deposit(String amount) throws IOException, InterruptedException {
+        HttpResponse<String> response = post("/account/" + user.accountNumber() + "/deposit", Map.of(
+                "amount", amount,
+                "_csrf", csrfToken
+        ));
+        return redirectsTo(response, "/account");
+    }
+
+    boolean transfer(String toAccountNumber, String amount) throws IOException, InterruptedException {
+        HttpResponse<String> response = post("/account/" + user.accountNumber() + "/transfer", Map.of(
+                "fromAccountNumber", user.accountNumber(),
+                "toAccountNumber", toAccountNumber,
+                "amount", amount,
+                "_csrf", csrfToken
+        ));
+        return redirectsTo(response, "/account");
+    }
+
+    boolean history() throws IOException, InterruptedException {
+        return get("/account/" + user.accountNumber() + "/transaction").statusCode() == 200;
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, Map<String, String> form) throws IOException, InterruptedException {
+        StringJoiner body = new StringJoiner("&");
+        form.forEach((name, value) -> body.add(
+                URLEncoder.encode(name, StandardCharsets.UTF_8) + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8)));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static boolean redirectsTo(HttpResponse<String> response, String path) {
+        return response.statusCode() == 302
+                && response.headers().firstValue("Location").map(location -> location.endsWith(path)).orElse(false);
+    }
+
+    private static String csrf(String html) {
+        Matcher matcher = CSRF_FIELD.matcher(html);
+        if (!matcher.find()) {
+            throw new IllegalStateException("На странице нет CSRF-токена");
+        }
+        return matcher.group(1);
+    }
+
+    record SeededUser(String email, String password, String accountNumber) {
+    }
+}
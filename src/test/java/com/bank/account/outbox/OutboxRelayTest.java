@@ -0,0 +1,115 @@
+package com.bank.account.outbox;
+
+import com.bank.account.model.OutboxEvent;
+import com.bank.account.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final OutboxSink sink = mock(OutboxSink.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        OutboxProperties properties = new OutboxProperties(true, "memory", Path.of("outbox/events.ndjson"),
+                100, BATCH_SIZE, Duration.ofMillis(500));
+        relay = new OutboxRelay(repository, sink, properties, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void fullBatchesAreDrainedInOnePoll() {
+        OutboxEvent first = event();
+        OutboxEvent second = event();
+        OutboxEvent third = event();
+        when(repository.findAllByOrderByIdAsc(Limit.of(BATCH_SIZE)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+
+        relay.relay();
+
+        verify(sink).publish(List.of(first, second));
+        verify(sink).publish(List.of(third));
+        verify(repository).deleteAllByIdInBatch(List.of(first.getId(), second.getId()));
+        verify(repository).deleteAllByIdInBatch(List.of(third.getId()));
+        // Неполная пачка означает, что очередь разобрана: третьего запроса нет
+        verify(repository, times(2)).findAllByOrderByIdAsc(any());
+        verify(transactionManager, times(2)).commit(any());
+        assertThat(meterRegistry.get("bank.outbox.published").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void failedBatchStaysForNextPoll() {
+        OutboxEvent event = event();
+        when(repository.findAllByOrderByIdAsc(Limit.of(BATCH_SIZE))).thenReturn(List.of(event));
+        doThrow(new IllegalStateException("Брокер недоступен")).doNothing().when(sink).publish(anyList());
+
+        relay.relay();
+
+        verify(repository, never()).deleteAllByIdInBatch(any());
+        verify(transactionManager).rollback(any());
+        assertThat(meterRegistry.get("bank.outbox.failures").counter().count()).isEqualTo(1);
+
+        relay.relay();
+
+        verify(sink, times(2)).publish(List.of(event));
+        verify(repository).deleteAllByIdInBatch(List.of(event.getId()));
+        assertThat(meterRegistry.get("bank.outbox.published").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void backlogGaugesFollowTable() {
+        when(repository.findAllByOrderByIdAsc(Limit.of(BATCH_SIZE))).thenReturn(List.of());
+        when(repository.count()).thenReturn(7L);
+        when(repository.findOldestCreatedAt()).thenReturn(LocalDateTime.now().minusSeconds(30));
+
+        relay.relay();
+
+        assertThat(meterRegistry.get("bank.outbox.pending").gauge().value()).isEqualTo(7);
+        assertThat(meterRegistry.get("bank.outbox.lag").gauge().value()).isBetween(29.0, 60.0);
+        verify(sink, never()).publish(anyList());
+
+        when(repository.count()).thenReturn(0L);
+        when(repository.findOldestCreatedAt()).thenReturn(null);
+        relay.relay();
+
+        assertThat(meterRegistry.get("bank.outbox.pending").gauge().value()).isZero();
+        assertThat(meterRegistry.get("bank.outbox.lag").gauge().value()).isZero();
+    }
+
+    private static OutboxEvent event() {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .type("transaction.deposit")
+                .aggregateId(UUID.randomUUID())
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
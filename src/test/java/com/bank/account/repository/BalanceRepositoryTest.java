@@ -0,0 +1,120 @@
+package com.bank.account.repository;
+
+import com.bank.account.model.Account;
+import com.bank.account.model.AccountType;
+import com.bank.account.model.Role;
+import com.bank.account.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class BalanceRepositoryTest {
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    void creditReturnsNewBalance() {
+        Account account = account("100.00");
+
+        AccountBalance balance = balanceRepository.credit(account.getAccountNumber(), new BigDecimal("25.50")).orElseThrow();
+
+        assertThat(balance.id()).isEqualTo(account.getId());
+        assertThat(balance.userId()).isEqualTo(account.getUser().getId());
+        assertThat(balance.balance()).isEqualByComparingTo("125.50");
+        assertThat(balanceRepository.findBalance(account.getAccountNumber()))
+                .hasValueSatisfying(stored -> assertThat(stored).isEqualByComparingTo("125.50"));
+    }
+
+    @Test
+    void debitDownToZeroIsAllowed() {
+        Account account = account("100.00");
+
+        AccountBalance balance = balanceRepository.debit(account.getAccountNumber(), new BigDecimal("100.00")).orElseThrow();
+
+        assertThat(balance.balance()).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void debitOverBalanceChangesNothing() {
+        Account account = account("100.00");
+
+        assertThat(balanceRepository.debit(account.getAccountNumber(), new BigDecimal("100.01"))).isEmpty();
+
+        assertThat(balanceRepository.findBalance(account.getAccountNumber()))
+                .hasValueSatisfying(stored -> assertThat(stored).isEqualByComparingTo("100.00"));
+    }
+
+    @Test
+    void unknownAccountIsEmpty() {
+        assertThat(balanceRepository.credit("40817810999999999999", BigDecimal.ONE)).isEmpty();
+        assertThat(balanceRepository.debit("40817810999999999999", BigDecimal.ONE)).isEmpty();
+        assertThat(balanceRepository.findBalance("40817810999999999999")).isEmpty();
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws Exception {
+        Account account = account("100.00");
+        int requests = 10;
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Boolean>> debits = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(requests)) {
+            for (int i = 0; i < requests; i++) {
+                debits.add(executor.submit(() -> {
+                    assertThat(start.await(10, TimeUnit.SECONDS)).isTrue();
+                    return balanceRepository.debit(account.getAccountNumber(), new BigDecimal("30.00")).isPresent();
+                }));
+            }
+            start.countDown();
+        }
+
+        int succeeded = 0;
+        for (Future<Boolean> debit : debits) {
+            succeeded += debit.get() ? 1 : 0;
+        }
+        // Условие balance >= amount проверяется в самом UPDATE: прошли ровно три списания
+        assertThat(succeeded).isEqualTo(3);
+        assertThat(balanceRepository.findBalance(account.getAccountNumber()))
+                .hasValueSatisfying(stored -> assertThat(stored).isEqualByComparingTo("10.00"));
+    }
+
+    private Account account(String balance) {
+        long suffix = ThreadLocalRandom.current().nextLong(1_000_000_000L, 9_999_999_999L);
+        User user = userRepository.save(User.builder()
+                .email("balance" + suffix + "@example.com")
+                .phoneNumber("+7" + suffix)
+                .password("123")
+                .firstName("Balance")
+                .lastName("Test")
+                .role(Role.USER)
+                .build());
+        return accountRepository.save(Account.builder()
+                .user(user)
+                .accountNumber("4081781" + suffix + "000")
+                .type(AccountType.CHECKING)
+                .balance(new BigDecimal(balance))
+                .build());
+    }
+}
@@ -0,0 +1,112 @@
+package com.bank.account.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConflictRetryAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Operation target;
+    private Operation proxy;
+
+    @BeforeEach
+    void setUp() {
+        RetryProperties.Policy fast = new RetryProperties.Policy(3, Duration.ofMillis(1), Duration.ofMillis(2), 2.0);
+        RetryProperties properties = new RetryProperties(fast, Map.of());
+
+        target = new Operation();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new ConflictRetryAspect(properties, meterRegistry));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    void conflictIsRetriedUntilSuccess() {
+        target.failures.add(new CannotAcquireLockException("Строка заблокирована"));
+        // Конфликт может прийти завернутым: проверяется вся цепочка причин
+        target.failures.add(new IllegalStateException("Ошибка коммита", new OptimisticLockException("Версия изменилась")));
+
+        assertThat(proxy.post()).isEqualTo("done");
+
+        assertThat(target.calls).isEqualTo(3);
+        assertThat(count("retried")).isEqualTo(2);
+        assertThat(count("recovered")).isEqualTo(1);
+        assertThat(count("exhausted")).isZero();
+    }
+
+    @Test
+    void budgetIsLimited() {
+        for (int i = 0; i < 5; i++) {
+            target.failures.add(new CannotAcquireLockException("Строка заблокирована"));
+        }
+
+        assertThatThrownBy(proxy::post).isInstanceOf(CannotAcquireLockException.class);
+
+        assertThat(target.calls).isEqualTo(3);
+        assertThat(count("retried")).isEqualTo(2);
+        assertThat(count("exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        target.failures.add(new DataIntegrityViolationException("Нарушено ограничение"));
+
+        assertThatThrownBy(proxy::post).isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(target.calls).isEqualTo(1);
+        assertThat(count("retried")).isZero();
+    }
+
+    @Test
+    void callInsideTransactionIsNotRetried() {
+        target.failures.add(new CannotAcquireLockException("Строка заблокирована"));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThatThrownBy(proxy::post).isInstanceOf(CannotAcquireLockException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(target.calls).isEqualTo(1);
+    }
+
+    private double count(String event) {
+        Counter counter = meterRegistry.find(ConflictRetryAspect.METRIC)
+                .tag("operation", "test.post")
+                .tag("event", event)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    static class Operation {
+
+        final Deque<RuntimeException> failures = new ArrayDeque<>();
+        int calls;
+
+        @RetryOnConflict("test.post")
+        public String post() {
+            calls++;
+            RuntimeException failure = failures.poll();
+            if (failure != null) {
+                throw failure;
+            }
+            return "done";
+        }
+    }
+}
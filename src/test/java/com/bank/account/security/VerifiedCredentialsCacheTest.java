@@ -0,0 +1,75 @@
+package com.bank.account.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerifiedCredentialsCacheTest {
+
+    private static final String USER = "client@bank.local";
+
+    private final VerifiedCredentialsCache cache =
+            new VerifiedCredentialsCache(new ApiCredentialsProperties(Duration.ofMinutes(1), 100));
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    // Вместо BCrypt: подходит только пароль secret
+    private final AuthenticationManager delegate = attempt -> {
+        verifications.incrementAndGet();
+        if (!"secret".equals(attempt.getCredentials())) {
+            throw new BadCredentialsException("Неверный пароль");
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(attempt.getName(), null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+    };
+
+    @Test
+    void repeatedRequestIsNotVerifiedAgain() {
+        Authentication first = cache.authenticate(attempt(USER, "secret"), delegate);
+        Authentication second = cache.authenticate(attempt(USER, "secret"), delegate);
+
+        assertThat(second).isSameAs(first);
+        assertThat(verifications).hasValue(1);
+    }
+
+    @Test
+    void differentPasswordIsVerified() {
+        cache.authenticate(attempt(USER, "secret"), delegate);
+
+        assertThatThrownBy(() -> cache.authenticate(attempt(USER, "guess"), delegate))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void failedAttemptIsNotRemembered() {
+        assertThatThrownBy(() -> cache.authenticate(attempt(USER, "guess"), delegate))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> cache.authenticate(attempt(USER, "guess"), delegate))
+                .isInstanceOf(BadCredentialsException.class);
+
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void evictedUserIsVerifiedAgain() {
+        cache.authenticate(attempt(USER, "secret"), delegate);
+
+        cache.evict(USER);
+        cache.authenticate(attempt(USER, "secret"), delegate);
+
+        assertThat(verifications).hasValue(2);
+    }
+
+    private static Authentication attempt(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
@@ -0,0 +1,71 @@
+package com.bank.account.service;
+
+import com.bank.account.dto.TransactionResponse;
+import com.bank.account.model.Account;
+import com.bank.account.model.Transaction;
+import com.bank.account.model.TransactionType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionMappingBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final String ACCOUNT_NUMBER = "ACC000000000018";
+
+    private List<Transaction> transactions;
+
+    @Setup
+    public void prepare() {
+        Account account = Account.builder().accountNumber(ACCOUNT_NUMBER).build();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        transactions = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            transactions.add(Transaction.builder()
+                    .account(account)
+                    .amount(BigDecimal.valueOf(i, 2))
+                    .type(TransactionType.DEPOSIT)
+                    .description("Пополнение счета " + ACCOUNT_NUMBER)
+                    .balanceAfter(BigDecimal.valueOf(i * 100L, 2))
+                    .timestamp(start.plusMinutes(i))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void convert(Blackhole blackhole) {
+        for (Transaction transaction : transactions) {
+            blackhole.consume(TransactionService.convertToTransactionResponse(ACCOUNT_NUMBER, transaction));
+        }
+    }
+
+    // Прежняя реализация с новым форматтером на каждую строку — точка отсчета
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void convertWithFormatterPerRow(Blackhole blackhole) {
+        for (Transaction transaction : transactions) {
+            blackhole.consume(new TransactionResponse(
+                    ACCOUNT_NUMBER,
+                    transaction.getDescription(),
+                    transaction.getAmount(),
+                    transaction.getType(),
+                    DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss").format(transaction.getTimestamp()),
+                    transaction.getBalanceAfter()
+            ));
+        }
+    }
+}
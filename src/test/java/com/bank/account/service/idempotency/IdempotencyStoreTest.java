@@ -0,0 +1,144 @@
+package com.bank.account.service.idempotency;
+
+import com.bank.account.exception.IdempotencyKeyReusedException;
+import com.bank.account.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class IdempotencyStoreTest {
+
+    private static final String ACCOUNT = "40817810000000000001";
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void sameKeyReturnsStoredResponse() {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger calls = new AtomicInteger();
+
+        Receipt first = execute(key, "100.00", () -> new Receipt(calls.incrementAndGet(), new BigDecimal("100.00")));
+        Receipt replay = execute(key, "100.00", () -> new Receipt(calls.incrementAndGet(), new BigDecimal("100.00")));
+
+        assertThat(calls).hasValue(1);
+        assertThat(replay).isEqualTo(first);
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        String key = UUID.randomUUID().toString();
+        execute(key, "100.00", () -> new Receipt(1, new BigDecimal("100.00")));
+
+        assertThatThrownBy(() -> execute(key, "200.00", () -> new Receipt(2, new BigDecimal("200.00"))))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+    @Test
+    void rolledBackRequestIsNotRemembered() {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger calls = new AtomicInteger();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            store.execute("deposit", ACCOUNT, key, "100.00", Receipt.class,
+                    () -> new Receipt(calls.incrementAndGet(), BigDecimal.ONE));
+            status.setRollbackOnly();
+        });
+        Receipt retried = execute(key, "100.00", () -> new Receipt(calls.incrementAndGet(), BigDecimal.ONE));
+
+        assertThat(calls).hasValue(2);
+        assertThat(retried.attempt()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentDuplicateDoesNotRunAction() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        Future<Receipt> first;
+        Future<Receipt> duplicate;
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            first = executor.submit(() -> execute(key, "100.00", () -> {
+                int attempt = calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return new Receipt(attempt, new BigDecimal("100.00"));
+            }));
+            await(started);
+            // Дубль приходит, пока первый запрос выполняет действие, и ждет на зарезервированном ключе
+            duplicate = executor.submit(() -> execute(key, "100.00",
+                    () -> new Receipt(calls.incrementAndGet(), new BigDecimal("100.00"))));
+            Thread.sleep(200);
+            release.countDown();
+        }
+
+        Receipt committed = first.get();
+        try {
+            assertThat(duplicate.get()).isEqualTo(committed);
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(IdempotencyConflictException.class);
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(repository.findAll()).filteredOn(record -> record.getId().endsWith(key)).hasSize(1);
+
+        // Повтор проигравшего запроса получает ответ победителя, действие больше не выполняется
+        Receipt retried = execute(key, "100.00", () -> new Receipt(calls.incrementAndGet(), BigDecimal.ZERO));
+        assertThat(retried).isEqualTo(committed);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void failedActionReleasesKey() {
+        String key = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> execute(key, "100.00", () -> {
+            throw new IllegalStateException("Проводка не прошла");
+        })).isInstanceOf(IllegalStateException.class);
+        Receipt retried = execute(key, "100.00", () -> new Receipt(2, BigDecimal.ONE));
+
+        assertThat(retried.attempt()).isEqualTo(2);
+    }
+
+    private Receipt execute(String key, String fingerprint, Supplier<Receipt> action) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                store.execute("deposit", ACCOUNT, key, fingerprint, Receipt.class, action));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    record Receipt(int attempt, BigDecimal amount) {}
+}
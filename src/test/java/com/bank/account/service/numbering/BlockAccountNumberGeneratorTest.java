@@ -0,0 +1,89 @@
+package com.bank.account.service.numbering;
+
+import com.bank.account.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BlockAccountNumberGeneratorTest {
+
+    private final AccountNumberAllocator allocator = mock(AccountNumberAllocator.class);
+    private final BlockAccountNumberGenerator generator =
+            new BlockAccountNumberGenerator(allocator, new AccountNumberProperties(10));
+
+    @Test
+    void checkDigitMatchesLuhn() {
+        // Пример из описания алгоритма: 7992739871 → 3
+        assertThat(BlockAccountNumberGenerator.checkDigit("7992739871")).isEqualTo(3);
+        assertThat(BlockAccountNumberGenerator.checkDigit("00000000000")).isZero();
+    }
+
+    @Test
+    void generatedNumbersAreValidAndUnique() {
+        when(allocator.lease(10)).thenReturn(1L, 11L, 21L);
+
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            String number = generator.next();
+            assertThat(number).matches("ACC\\d{12}");
+            assertThat(generator.isValid(number)).as(number).isTrue();
+            numbers.add(number);
+        }
+
+        assertThat(numbers).hasSize(30);
+        assertThat(numbers).contains("ACC" + "00000000001" + BlockAccountNumberGenerator.checkDigit("00000000001"));
+        // Номер выдается из арендованного блока, к БД — раз в blockSize номеров
+        verify(allocator, times(3)).lease(10);
+    }
+
+    @Test
+    void singleDigitErrorIsRejected() {
+        String valid = "ACC" + "12345678901" + BlockAccountNumberGenerator.checkDigit("12345678901");
+        assertThat(generator.isValid(valid)).isTrue();
+
+        for (int position = 3; position < valid.length(); position++) {
+            char digit = valid.charAt(position);
+            char typo = (char) ('0' + (digit - '0' + 1) % 10);
+            String mistyped = valid.substring(0, position) + typo + valid.substring(position + 1);
+            assertThat(generator.isValid(mistyped)).as(mistyped).isFalse();
+        }
+    }
+
+    @Test
+    void adjacentTranspositionIsRejected() {
+        String valid = "ACC" + "12345678901" + BlockAccountNumberGenerator.checkDigit("12345678901");
+        String swapped = valid.substring(0, 4) + valid.charAt(5) + valid.charAt(4) + valid.substring(6);
+
+        assertThat(generator.isValid(swapped)).isFalse();
+    }
+
+    @Test
+    void malformedNumbersAreRejected() {
+        assertThat(generator.isValid(null)).isFalse();
+        assertThat(generator.isValid("")).isFalse();
+        assertThat(generator.isValid("ACC1234")).isFalse();
+        assertThat(generator.isValid("BCC123456789012")).isFalse();
+        assertThat(generator.isValid("ACC12345678901X")).isFalse();
+        assertThat(generator.isValid("ACC12345678901234567")).isFalse();
+
+        assertThatThrownBy(() -> generator.requireValid("ACC1234"))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void legacyNumbersAreAcceptedWithoutCheckDigit() {
+        // ACC + миллисекунды (13 цифр) + до трех случайных цифр
+        assertThat(generator.isValid("ACC17000000000001")).isTrue();
+        assertThat(generator.isValid("ACC170000000000012")).isTrue();
+        assertThat(generator.isValid("ACC1700000000000123")).isTrue();
+        assertThat(generator.isValid("ACC17000000000001234")).isFalse();
+    }
+}
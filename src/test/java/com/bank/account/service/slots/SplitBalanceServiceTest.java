@@ -0,0 +1,184 @@
+package com.bank.account.service.slots;
+
+import com.bank.account.exception.InsufficientFundsException;
+import com.bank.account.exception.ValidationException;
+import com.bank.account.model.Account;
+import com.bank.account.model.AccountType;
+import com.bank.account.model.BalanceSlot;
+import com.bank.account.model.Role;
+import com.bank.account.model.User;
+import com.bank.account.repository.AccountBalance;
+import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class SplitBalanceServiceTest {
+
+    @Autowired
+    private SplitBalanceService service;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void builtSlotStartsEmpty() {
+        BalanceSlot slot = BalanceSlot.builder().accountId("acc-1").slot(0).build();
+
+        assertThat(slot.getBalance()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void creditAndDebitGoThroughSlots() {
+        Account account = account(AccountType.CHECKING, "100.00");
+        split(account, 4);
+
+        AccountBalance credited = service.credit(account.getAccountNumber(), new BigDecimal("50.00")).orElseThrow();
+        AccountBalance debited = service.debit(account.getAccountNumber(), new BigDecimal("30.00")).orElseThrow();
+
+        assertThat(credited.balance()).isEqualByComparingTo("150.00");
+        assertThat(debited.balance()).isEqualByComparingTo("120.00");
+        // Зачисление легло в слот; списание взято из него же, строка счета не тронута
+        assertThat(accountBalance(account)).isEqualByComparingTo("100.00");
+        assertThat(slotBalances(account)).hasSize(4)
+                .satisfiesOnlyOnce(balance -> assertThat(balance).isEqualByComparingTo("20.00"));
+    }
+
+    @Test
+    void debitFallsBackToAccountRow() {
+        Account account = account(AccountType.CHECKING, "100.00");
+        split(account, 2);
+
+        AccountBalance debited = service.debit(account.getAccountNumber(), new BigDecimal("40.00")).orElseThrow();
+
+        assertThat(debited.balance()).isEqualByComparingTo("60.00");
+        assertThat(accountBalance(account)).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    void debitDrainsSlotsWhenNoSinglePartCovers() {
+        Account account = account(AccountType.CHECKING, "30.00");
+        split(account, 2);
+        setSlots(account, "40.00", "40.00");
+
+        AccountBalance debited = service.debit(account.getAccountNumber(), new BigDecimal("100.00")).orElseThrow();
+
+        assertThat(debited.balance()).isEqualByComparingTo("10.00");
+        assertThat(accountBalance(account)).isEqualByComparingTo("10.00");
+        assertThat(slotBalances(account)).allSatisfy(balance -> assertThat(balance).isEqualByComparingTo("0"));
+    }
+
+    @Test
+    void debitOverTotalIsRejected() {
+        Account account = account(AccountType.CHECKING, "30.00");
+        split(account, 2);
+        setSlots(account, "40.00", "40.00");
+
+        assertThatThrownBy(() -> service.debit(account.getAccountNumber(), new BigDecimal("110.01")))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        assertThat(accountBalance(account)).isEqualByComparingTo("30.00");
+        assertThat(slotBalances(account)).allSatisfy(balance -> assertThat(balance).isEqualByComparingTo("40.00"));
+    }
+
+    @Test
+    void resizeMovesSlotBalancesToAccountRow() {
+        Account account = account(AccountType.CHECKING, "10.00");
+        split(account, 4);
+        setSlots(account, "1.00", "2.00", "3.00", "4.00");
+
+        service.resize(account.getAccountNumber(), 2);
+
+        assertThat(accountBalance(account)).isEqualByComparingTo("20.00");
+        assertThat(slotBalances(account)).hasSize(2)
+                .allSatisfy(balance -> assertThat(balance).isEqualByComparingTo("0"));
+
+        setSlots(account, "5.00", "5.00");
+        service.resize(account.getAccountNumber(), 0);
+        service.refresh();
+
+        Account plain = accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow();
+        assertThat(plain.getBalanceSlots()).isNull();
+        assertThat(plain.getBalance()).isEqualByComparingTo("30.00");
+        assertThat(slotBalances(account)).isEmpty();
+        // Раскладки больше нет: проводки снова идут в строку счета
+        assertThat(service.credit(account.getAccountNumber(), BigDecimal.ONE)).isEmpty();
+        assertThat(service.debit(account.getAccountNumber(), BigDecimal.ONE)).isEmpty();
+    }
+
+    @Test
+    void plainAccountIsNotHandled() {
+        Account account = account(AccountType.CHECKING, "100.00");
+        service.refresh();
+
+        assertThat(service.credit(account.getAccountNumber(), BigDecimal.TEN)).isEmpty();
+        assertThat(service.debit(account.getAccountNumber(), BigDecimal.TEN)).isEmpty();
+        assertThat(accountBalance(account)).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void savingsAccountCannotBeSplit() {
+        Account account = account(AccountType.SAVINGS, "100.00");
+
+        assertThatThrownBy(() -> service.resize(account.getAccountNumber(), 2))
+                .isInstanceOf(ValidationException.class);
+        assertThat(slotBalances(account)).isEmpty();
+    }
+
+    private void split(Account account, int slots) {
+        service.resize(account.getAccountNumber(), slots);
+        service.refresh();
+    }
+
+    private void setSlots(Account account, String... balances) {
+        for (int slot = 0; slot < balances.length; slot++) {
+            jdbcTemplate.update("UPDATE balance_slots SET balance = ? WHERE account_id = ? AND slot = ?",
+                    new BigDecimal(balances[slot]), account.getId(), slot);
+        }
+    }
+
+    private BigDecimal accountBalance(Account account) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, account.getId());
+    }
+
+    private List<BigDecimal> slotBalances(Account account) {
+        return jdbcTemplate.queryForList("SELECT balance FROM balance_slots WHERE account_id = ? ORDER BY slot",
+                BigDecimal.class, account.getId());
+    }
+
+    private Account account(AccountType type, String balance) {
+        long suffix = ThreadLocalRandom.current().nextLong(1_000_000_000L, 9_999_999_999L);
+        User user = userRepository.save(User.builder()
+                .email("slots" + suffix + "@example.com")
+                .phoneNumber("+7" + suffix)
+                .password("123")
+                .firstName("Slots")
+                .lastName("Test")
+                .role(Role.USER)
+                .build());
+        return accountRepository.save(Account.builder()
+                .user(user)
+                .accountNumber("4081781" + suffix + "000")
+                .type(type)
+                .balance(new BigDecimal(balance))
+                .build());
+    }
+}
@@ -1,4 +1,185 @@
 package com.bank.account.unit.service;
 
+import com.bank.account.dto.BatchTransferResponse;
+import com.bank.account.dto.TransferLegResult;
+import com.bank.account.dto.TransferLegStatus;
+import com.bank.account.dto.TransferRequest;
+import com.bank.account.exception.InsufficientFundsException;
+import com.bank.account.ledger.LedgerEngine;
+import com.bank.account.ledger.LedgerPosting;
+import com.bank.account.model.Account;
+import com.bank.account.model.JournalEntry;
+import com.bank.account.model.TransactionType;
+import com.bank.account.model.User;
+import com.bank.account.repository.AccountRepository;
+import com.bank.account.repository.BalanceRepository;
+import com.bank.account.service.AccountCache;
+import com.bank.account.service.AccountOwnership;
+import com.bank.account.service.AccountService;
+import com.bank.account.service.TransactionService;
+import com.bank.account.service.UserService;
+import com.bank.account.service.numbering.AccountNumberGenerator;
+import com.bank.account.service.slots.SplitBalanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 class AccountServiceTest {
-}
\ No newline at end of file
+
+    private static final String ALICE = "40817810000000000001";
+    private static final String BOB = "40817810000000000002";
+    private static final String CAROL = "40817810000000000003";
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final AccountNumberGenerator accountNumberGenerator = mock(AccountNumberGenerator.class);
+    private final AccountOwnership accountOwnership = mock(AccountOwnership.class);
+    private final SplitBalanceService splitBalanceService = mock(SplitBalanceService.class);
+    private final AccountCache accountCache = mock(AccountCache.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<LedgerEngine> ledgerEngine = mock(ObjectProvider.class);
+
+    private final List<JournalEntry> saved = new ArrayList<>();
+    private AccountService service;
+
+    @BeforeEach
+    void setUp() {
+        when(accountNumberGenerator.isValid(anyString())).thenReturn(true);
+        when(accountNumberGenerator.isValid("bad")).thenReturn(false);
+        // Счет Кэрол принадлежит другому пользователю
+        when(accountOwnership.ownedAmong(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> numbers = invocation.getArgument(0);
+            return numbers.stream().filter(number -> !number.equals(CAROL)).collect(Collectors.toSet());
+        });
+        when(transactionService.buildTransfer(any(), any(), any())).thenAnswer(invocation -> mock(JournalEntry.class));
+        doAnswer(invocation -> saved.addAll(invocation.getArgument(0)))
+                .when(transactionService).saveAll(any());
+
+        service = new AccountService(accountRepository, mock(BalanceRepository.class), transactionService,
+                mock(UserService.class), ledgerEngine, accountCache, accountNumberGenerator,
+                splitBalanceService, accountOwnership);
+    }
+
+    @Test
+    void batchAppliesLegsAgainstRunningBalances() {
+        Account alice = account(ALICE, "100.00");
+        Account bob = account(BOB, "0.00");
+        accounts(alice, bob);
+
+        BatchTransferResponse response = service.batchTransfer(List.of(
+                leg(ALICE, BOB, "60.00"),
+                // После первой ноги у Алисы 40: вторая нога не проходит, третья проходит
+                leg(ALICE, BOB, "50.00"),
+                leg(ALICE, BOB, "40.00"),
+                leg(BOB, ALICE, "10.00")
+        ));
+
+        assertThat(response.completed()).isEqualTo(3);
+        assertThat(response.rejected()).isEqualTo(1);
+        assertThat(response.legs()).extracting(TransferLegResult::status).containsExactly(
+                TransferLegStatus.COMPLETED, TransferLegStatus.REJECTED,
+                TransferLegStatus.COMPLETED, TransferLegStatus.COMPLETED);
+        assertThat(response.legs().get(1).errorCode()).isEqualTo("INSUFFICIENT_FUNDS");
+        assertThat(response.legs().get(2).fromBalanceAfter()).isEqualByComparingTo("0.00");
+
+        assertThat(alice.getBalance()).isEqualByComparingTo("10.00");
+        assertThat(bob.getBalance()).isEqualByComparingTo("90.00");
+        // Проводки всех ног уходят одним saveAll
+        assertThat(saved).hasSize(3);
+        verify(splitBalanceService).consolidate(alice);
+        verify(splitBalanceService).consolidate(bob);
+    }
+
+    @Test
+    void rejectedLegsDoNotAbortBatch() {
+        Account alice = account(ALICE, "100.00");
+        Account bob = account(BOB, "0.00");
+        Account carol = account(CAROL, "100.00");
+        accounts(alice, bob, carol);
+
+        BatchTransferResponse response = service.batchTransfer(List.of(
+                leg("bad", BOB, "1.00"),
+                leg(ALICE, "40817810000000000999", "1.00"),
+                leg(CAROL, ALICE, "1.00"),
+                leg(ALICE, ALICE, "1.00"),
+                leg(ALICE, BOB, "1.00")
+        ));
+
+        assertThat(response.legs()).extracting(TransferLegResult::errorCode).containsExactly(
+                "VALIDATION_ERROR", "ACC_NOT_FOUND", "ACC_NOT_FOUND", "SAME_ACCOUNT", null);
+        // Чужой счет не блокируется и не меняется
+        assertThat(carol.getBalance()).isEqualByComparingTo("100.00");
+        assertThat(alice.getBalance()).isEqualByComparingTo("99.00");
+        assertThat(saved).hasSize(1);
+    }
+
+    @Test
+    void batchGoesThroughLedgerWhenEnabled() {
+        LedgerEngine engine = mock(LedgerEngine.class);
+        when(ledgerEngine.getIfAvailable()).thenReturn(engine);
+        when(engine.transfer(ALICE, BOB, new BigDecimal("30.00"))).thenReturn(List.of(
+                posting(ALICE, TransactionType.TRANSFER_OUT, "70.00"),
+                posting(BOB, TransactionType.TRANSFER_IN, "30.00")));
+        when(engine.transfer(ALICE, BOB, new BigDecimal("500.00")))
+                .thenThrow(new InsufficientFundsException(ALICE, new BigDecimal("70.00"), new BigDecimal("500.00")));
+
+        BatchTransferResponse response = service.batchTransfer(List.of(
+                leg(ALICE, BOB, "30.00"),
+                leg(ALICE, BOB, "500.00"),
+                leg(CAROL, BOB, "1.00")
+        ));
+
+        assertThat(response.legs()).extracting(TransferLegResult::errorCode)
+                .containsExactly(null, "INSUFFICIENT_FUNDS", "ACC_NOT_FOUND");
+        assertThat(response.legs().getFirst().fromBalanceAfter()).isEqualByComparingTo("70.00");
+        verify(accountRepository, never()).findAllByAccountNumberForUpdate(anyCollection());
+        verify(transactionService, never()).saveAll(any());
+    }
+
+    private void accounts(Account... accounts) {
+        when(accountRepository.findAllByAccountNumberForUpdate(anyCollection())).thenAnswer(invocation -> {
+            Set<String> numbers = Set.copyOf(invocation.<Collection<String>>getArgument(0));
+            return List.of(accounts).stream().filter(account -> numbers.contains(account.getAccountNumber())).toList();
+        });
+    }
+
+    private static Account account(String number, String balance) {
+        return Account.builder()
+                .id("id-" + number)
+                .accountNumber(number)
+                .balance(new BigDecimal(balance))
+                .user(User.builder().id("user-" + number).build())
+                .build();
+    }
+
+    private static TransferRequest leg(String from, String to, String amount) {
+        TransferRequest leg = new TransferRequest();
+        leg.setFromAccountNumber(from);
+        leg.setToAccountNumber(to);
+        leg.setAmount(new BigDecimal(amount));
+        return leg;
+    }
+
+    private static LedgerPosting posting(String number, TransactionType type, String balanceAfter) {
+        return new LedgerPosting("id-" + number, number, type, new BigDecimal("30.00"),
+                new BigDecimal(balanceAfter), "Перевод", LocalDateTime.now());
+    }
+}